@@ -0,0 +1,60 @@
+import java.awt.Color;
+import tester.*;
+
+// represents the flags kept for each node of a Maze in one byte, which say what has happened
+// to the node, its color is only ever looked up from them when it needs to be drawn
+class CellState {
+  static final byte VISITED = 1; // shown as visited, by a search or by moving off of it
+  static final byte ON_PATH = 2; // drawn as part of the direct path
+  static final byte HIDDEN = 4; // visited but hidden by the toggle
+  static final byte PLAYER = 8; // where the player is standing
+  static final byte START = 16; // marked as the start of the maze
+  static final byte END = 32; // marked as the end of the maze
+
+  // returns the color a node with the given flags is drawn in, the markers of the start and
+  // the end win over everything, then the path, then the player, then visited nodes
+  static Color color(byte flags) {
+    if ((flags & CellState.END) != 0) {
+      return Color.MAGENTA;
+    }
+    if ((flags & CellState.START) != 0) {
+      return Color.GREEN;
+    }
+    if ((flags & CellState.ON_PATH) != 0) {
+      return Color.YELLOW;
+    }
+    if ((flags & CellState.PLAYER) != 0) {
+      return Color.ORANGE;
+    }
+    if ((flags & (CellState.VISITED | CellState.HIDDEN)) == CellState.VISITED) {
+      return Color.BLUE;
+    }
+    return Color.WHITE;
+  }
+
+  // returns whether a node with the given flags is drawn as an ordinary visited node, the
+  // only kind of node the toggle hides
+  static boolean showsVisited(byte flags) {
+    return flags == CellState.VISITED;
+  }
+}
+
+// class for testing the CellState
+class ExampleCellState {
+  void testColor(Tester t) {
+    t.checkExpect(CellState.color((byte) 0), Color.WHITE);
+    t.checkExpect(CellState.color(CellState.VISITED), Color.BLUE);
+    t.checkExpect(CellState.color((byte) (CellState.VISITED | CellState.HIDDEN)), Color.WHITE);
+    t.checkExpect(CellState.color((byte) (CellState.VISITED | CellState.PLAYER)), Color.ORANGE);
+    t.checkExpect(CellState.color((byte) (CellState.ON_PATH | CellState.PLAYER)), Color.YELLOW);
+    t.checkExpect(CellState.color((byte) (CellState.START | CellState.VISITED)), Color.GREEN);
+    t.checkExpect(CellState.color((byte) (CellState.START | CellState.END)), Color.MAGENTA);
+  }
+
+  void testShowsVisited(Tester t) {
+    t.checkExpect(CellState.showsVisited(CellState.VISITED), true);
+    t.checkExpect(CellState.showsVisited((byte) (CellState.VISITED | CellState.ON_PATH)), false);
+    t.checkExpect(CellState.showsVisited((byte) (CellState.VISITED | CellState.HIDDEN)), false);
+    t.checkExpect(CellState.showsVisited((byte) 0), false);
+  }
+}
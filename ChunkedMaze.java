@@ -0,0 +1,243 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import tester.*;
+
+// represents a maze with no edges that is split into square chunks, each chunk is a perfect
+// maze made only from the world seed and the chunk's coordinates, so any part of the world can
+// be made on demand in any order and always comes out the same
+// every chunk opens exactly one passage into its right neighbor and one into the neighbor
+// below, so the whole world is connected and loops only ever go through chunk borders
+class ChunkedMaze {
+  static final int RIGHT_BORDER = 1;
+  static final int BOTTOM_BORDER = 2;
+
+  // about how many bytes a cached chunk takes up on top of its passages: the WallGrid object
+  // (32), the header of its long array (16), the boxed Long key (16), the entry of the
+  // LinkedHashMap (40) and its slot in the table of the map (8), which for small chunks is
+  // more than the passages themselves
+  static final long CHUNK_OVERHEAD = 112;
+
+  int chunkSize; // number of rows and columns in a chunk
+  long worldSeed;
+  int maxChunks; // how many chunks the cache keeps before dropping the least recently used
+  LinkedHashMap<Long, WallGrid> chunks;
+  int hits; // chunk lookups answered from the cache
+  int misses; // chunk lookups that had to generate the chunk
+
+  // constructor for ChunkedMaze, keeping at most maxBytes worth of cached chunks in memory,
+  // counting both their passages and what it takes to hold them, and always at least one chunk
+  ChunkedMaze(int chunkSize, long worldSeed, long maxBytes) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("A chunk needs at least one cell");
+    }
+    this.chunkSize = chunkSize;
+    this.worldSeed = worldSeed;
+    long bytesPerChunk = new WallGrid(chunkSize, chunkSize).bytesUsed()
+        + ChunkedMaze.CHUNK_OVERHEAD;
+    this.maxChunks = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / bytesPerChunk));
+    // access order makes the first entry the least recently used one
+    this.chunks = new LinkedHashMap<Long, WallGrid>(16, 0.75f, true) {
+      protected boolean removeEldestEntry(Map.Entry<Long, WallGrid> eldest) {
+        return this.size() > ChunkedMaze.this.maxChunks;
+      }
+    };
+  }
+
+  // returns a seed that depends on every one of the given numbers, mixed with the constants
+  // of SplitMix64 so that neighboring chunks get unrelated seeds
+  static long seedFor(long worldSeed, int chunkX, int chunkY, int salt) {
+    long seed = worldSeed;
+    seed = (seed ^ chunkX) * 0xBF58476D1CE4E5B9L;
+    seed = (seed ^ chunkY) * 0x94D049BB133111EBL;
+    seed = (seed ^ salt) * 0xBF58476D1CE4E5B9L;
+    return seed ^ (seed >>> 31);
+  }
+
+  // returns the key the given chunk is cached under
+  static long key(int chunkX, int chunkY) {
+    return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+  }
+
+  // returns the passages inside the given chunk
+  // EFFECT: generates the chunk if it is not cached, dropping the least recently used chunk
+  // once the cache is full
+  synchronized WallGrid chunk(int chunkX, int chunkY) {
+    long key = ChunkedMaze.key(chunkX, chunkY);
+    WallGrid chunk = this.chunks.get(key);
+    if (chunk != null) {
+      this.hits++;
+      return chunk;
+    }
+    this.misses++;
+    chunk = WallGrid.generate(this.chunkSize, this.chunkSize,
+        new SplittableRandom(ChunkedMaze.seedFor(this.worldSeed, chunkX, chunkY, 0)));
+    this.chunks.put(key, chunk);
+    return chunk;
+  }
+
+  // returns the row or column, inside the chunk, of the one passage through the given border
+  // of the given chunk, which needs nothing but the seeds so no chunk has to be generated
+  int borderOffset(int chunkX, int chunkY, int border) {
+    long seed = ChunkedMaze.seedFor(this.worldSeed, chunkX, chunkY, border);
+    return new SplittableRandom(seed).nextInt(this.chunkSize);
+  }
+
+  // returns whether the passage to the right of the cell at x, y is open
+  boolean right(int x, int y) {
+    int chunkX = Math.floorDiv(x, this.chunkSize);
+    int chunkY = Math.floorDiv(y, this.chunkSize);
+    int localX = Math.floorMod(x, this.chunkSize);
+    int localY = Math.floorMod(y, this.chunkSize);
+    if (localX == this.chunkSize - 1) {
+      return localY == this.borderOffset(chunkX, chunkY, ChunkedMaze.RIGHT_BORDER);
+    }
+    return this.chunk(chunkX, chunkY).right(localY * this.chunkSize + localX) != -1;
+  }
+
+  // returns whether the passage below the cell at x, y is open
+  boolean bottom(int x, int y) {
+    int chunkX = Math.floorDiv(x, this.chunkSize);
+    int chunkY = Math.floorDiv(y, this.chunkSize);
+    int localX = Math.floorMod(x, this.chunkSize);
+    int localY = Math.floorMod(y, this.chunkSize);
+    if (localY == this.chunkSize - 1) {
+      return localX == this.borderOffset(chunkX, chunkY, ChunkedMaze.BOTTOM_BORDER);
+    }
+    return this.chunk(chunkX, chunkY).bottom(localY * this.chunkSize + localX) != -1;
+  }
+
+  // returns whether the passage to the left of the cell at x, y is open
+  boolean left(int x, int y) {
+    return this.right(x - 1, y);
+  }
+
+  // returns whether the passage above the cell at x, y is open
+  boolean top(int x, int y) {
+    return this.bottom(x, y - 1);
+  }
+
+  // returns the window of the world with its top left cell at x, y as its own WallGrid, which
+  // the Maze and the MazeEngine can show and solve, passages leading out of it are left shut
+  WallGrid region(int x, int y, int length, int height) {
+    WallGrid grid = new WallGrid(length, height);
+    for (int row = 0; row < height; row++) {
+      for (int column = 0; column < length; column++) {
+        int pos = row * length + column;
+        if (column < length - 1 && this.right(x + column, y + row)) {
+          grid.connect(pos, pos + 1);
+        }
+        if (row < height - 1 && this.bottom(x + column, y + row)) {
+          grid.connect(pos, pos + length);
+        }
+      }
+    }
+    return grid;
+  }
+
+  // returns how many chunks are in the cache right now
+  synchronized int cachedChunks() {
+    return this.chunks.size();
+  }
+}
+
+// class for testing the ChunkedMaze
+class ExampleChunkedMaze {
+  ChunkedMaze world1;
+  ChunkedMaze world2;
+  ChunkedMaze tiny;
+
+  // initializes the data for testing
+  void initData() {
+    this.world1 = new ChunkedMaze(8, 42, 1 << 20);
+    this.world2 = new ChunkedMaze(8, 42, 1);
+    this.tiny = new ChunkedMaze(8, 42, 256);
+  }
+
+  // returns the number of open passages in the grid
+  int passages(WallGrid grid) {
+    int open = 0;
+    for (int pos = 0; pos < grid.cells(); pos++) {
+      if (grid.right(pos) != -1) {
+        open++;
+      }
+      if (grid.bottom(pos) != -1) {
+        open++;
+      }
+    }
+    return open;
+  }
+
+  // returns the number of cells that can be reached from the top left cell of the grid
+  int reachable(WallGrid grid) {
+    return new MazeEngine(grid).search("bfs", 0, -1, new IntQueue(16)).expanded;
+  }
+
+  void testConnected(Tester t) {
+    this.initData();
+    // 9 chunks of 63 passages each, plus one passage through each of the 12 inner borders
+    WallGrid grid = this.world1.region(-8, -8, 24, 24);
+    t.checkExpect(this.passages(grid), 9 * 63 + 12);
+    t.checkExpect(this.reachable(grid), 576);
+  }
+
+  void testDeterministic(Tester t) {
+    this.initData();
+    // the same world comes out whatever order the chunks are made in and however many are kept
+    WallGrid first = this.world1.region(100, -50, 30, 20);
+    this.world1.region(-1000, 1000, 16, 16);
+    t.checkExpect(this.world2.region(100, -50, 30, 20).bits, first.bits);
+    t.checkExpect(this.world1.region(100, -50, 30, 20).bits, first.bits);
+    t.checkFail(new ChunkedMaze(8, 43, 1 << 20).region(100, -50, 30, 20).bits, first.bits);
+  }
+
+  void testNeighbors(Tester t) {
+    this.initData();
+    t.checkExpect(this.world1.left(1, 3), this.world1.right(0, 3));
+    t.checkExpect(this.world1.top(5, 0), this.world1.bottom(5, -1));
+    // exactly one passage goes through the right border of a chunk
+    int open = 0;
+    for (int y = 0; y < 8; y++) {
+      if (this.world1.right(7, y)) {
+        open++;
+      }
+    }
+    t.checkExpect(open, 1);
+    t.checkExpect(this.world1.right(7, this.world1.borderOffset(0, 0, ChunkedMaze.RIGHT_BORDER)),
+        true);
+  }
+
+  void testCache(Tester t) {
+    this.initData();
+    // 8 by 8 chunks take 16 bytes of passages and 112 more to hold them, so 256 bytes keeps
+    // two of them
+    t.checkExpect(this.tiny.maxChunks, 2);
+    t.checkExpect(this.world2.maxChunks, 1);
+    t.checkExpect(new ChunkedMaze(8, 42, 255).maxChunks, 1);
+    // for big chunks the passages are what count
+    t.checkExpect(new ChunkedMaze(1024, 42, 1 << 20).maxChunks, 3);
+    this.tiny.chunk(0, 0);
+    this.tiny.chunk(1, 0);
+    this.tiny.chunk(0, 0);
+    t.checkExpect(this.tiny.hits, 1);
+    t.checkExpect(this.tiny.misses, 2);
+    // the chunk at 1, 0 was used least recently so it is the one dropped
+    this.tiny.chunk(2, 0);
+    t.checkExpect(this.tiny.cachedChunks(), 2);
+    t.checkExpect(this.tiny.chunks.containsKey(ChunkedMaze.key(0, 0)), true);
+    t.checkExpect(this.tiny.chunks.containsKey(ChunkedMaze.key(1, 0)), false);
+    this.tiny.chunk(1, 0);
+    t.checkExpect(this.tiny.misses, 4);
+  }
+
+  void testKey(Tester t) {
+    t.checkExpect(ChunkedMaze.key(0, -1), 0xFFFFFFFFL);
+    t.checkExpect(ChunkedMaze.key(-1, 0), 0xFFFFFFFF00000000L);
+    t.checkFail(ChunkedMaze.seedFor(42, 0, 1, 0), ChunkedMaze.seedFor(42, 1, 0, 0));
+  }
+
+  void testBadArguments(Tester t) {
+    t.checkConstructorException(new IllegalArgumentException("A chunk needs at least one cell"),
+        "ChunkedMaze", 0, 42L, 100L);
+  }
+}
@@ -0,0 +1,136 @@
+import tester.*;
+
+// represents a union-find structure over the integers 0 to size - 1, used by Kruskal's
+// algorithm to tell whether two cells of a maze are already connected
+class DisjointSet {
+  int[] parent; // the representative each element points to
+  int[] rank; // an upper bound on the height of the tree under each representative
+
+  // constructor for DisjointSet, every element starts out as its own representative
+  DisjointSet(int size) {
+    this.parent = new int[size];
+    this.rank = new int[size];
+    for (int i = 0; i < size; i++) {
+      this.parent[i] = i;
+    }
+  }
+
+  // EFFECT: makes every element its own representative again, so one set can be reused
+  void reset() {
+    for (int i = 0; i < this.parent.length; i++) {
+      this.parent[i] = i;
+      this.rank[i] = 0;
+    }
+  }
+
+  // returns the highest representative of the given element
+  // EFFECT: halves the path from the element to its representative on the way up
+  int find(int search) {
+    int current = search;
+    while (this.parent[current] != current) {
+      this.parent[current] = this.parent[this.parent[current]];
+      current = this.parent[current];
+    }
+    return current;
+  }
+
+  // returns whether the two given elements are in the same set
+  boolean connected(int a, int b) {
+    return this.find(a) == this.find(b);
+  }
+
+  // returns whether the two given elements were in different sets
+  // EFFECT: joins the sets of the two elements, hanging the shorter tree under the taller one
+  boolean union(int a, int b) {
+    int rootA = this.find(a);
+    int rootB = this.find(b);
+    if (rootA == rootB) {
+      return false;
+    }
+    if (this.rank[rootA] < this.rank[rootB]) {
+      this.parent[rootA] = rootB;
+    }
+    else if (this.rank[rootA] > this.rank[rootB]) {
+      this.parent[rootB] = rootA;
+    }
+    else {
+      this.parent[rootB] = rootA;
+      this.rank[rootA]++;
+    }
+    return true;
+  }
+}
+
+// class for testing the DisjointSet
+class ExampleDisjointSet {
+  DisjointSet set1;
+  DisjointSet set2;
+
+  // initializes the data for testing
+  void initData() {
+    this.set1 = new DisjointSet(6);
+    this.set2 = new DisjointSet(1000000);
+  }
+
+  void testFind(Tester t) {
+    this.initData();
+    t.checkExpect(this.set1.find(0), 0);
+    t.checkExpect(this.set1.find(5), 5);
+
+    // builds the chain 1 -> 2 -> 3 -> 4 -> 5 by hand and checks the path is halved
+    this.set1.parent[1] = 2;
+    this.set1.parent[2] = 3;
+    this.set1.parent[3] = 4;
+    this.set1.parent[4] = 5;
+    t.checkExpect(this.set1.find(1), 5);
+    t.checkExpect(this.set1.parent[1], 3);
+    t.checkExpect(this.set1.parent[3], 5);
+    t.checkExpect(this.set1.find(1), 5);
+  }
+
+  void testUnion(Tester t) {
+    this.initData();
+    t.checkExpect(this.set1.union(0, 1), true);
+    t.checkExpect(this.set1.union(1, 0), false);
+    t.checkExpect(this.set1.find(1), 0);
+    t.checkExpect(this.set1.rank[0], 1);
+
+    // the smaller tree is hung under the bigger one
+    t.checkExpect(this.set1.union(2, 0), true);
+    t.checkExpect(this.set1.find(2), 0);
+    t.checkExpect(this.set1.rank[0], 1);
+
+    t.checkExpect(this.set1.union(3, 4), true);
+    t.checkExpect(this.set1.union(4, 2), true);
+    t.checkExpect(this.set1.find(4), 3);
+    t.checkExpect(this.set1.find(1), 3);
+    t.checkExpect(this.set1.rank[3], 2);
+  }
+
+  void testConnected(Tester t) {
+    this.initData();
+    t.checkExpect(this.set1.connected(0, 5), false);
+    this.set1.union(0, 3);
+    this.set1.union(3, 5);
+    t.checkExpect(this.set1.connected(0, 5), true);
+    t.checkExpect(this.set1.connected(1, 5), false);
+  }
+
+  void testReset(Tester t) {
+    this.initData();
+    this.set1.union(0, 3);
+    this.set1.union(3, 5);
+    this.set1.reset();
+    t.checkExpect(this.set1.connected(0, 5), false);
+    t.checkExpect(this.set1.rank[0], 0);
+  }
+
+  void testLongChain(Tester t) {
+    this.initData();
+    // a long chain of unions does not overflow the stack
+    for (int i = 1; i < 1000000; i++) {
+      this.set2.union(i - 1, i);
+    }
+    t.checkExpect(this.set2.connected(0, 999999), true);
+  }
+}
@@ -0,0 +1,259 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import tester.*;
+
+// represents one finished row of a maze streamed out by an EllerGenerator, packed two bits per
+// cell the same way as a WallGrid
+class MazeRow {
+  int y; // which row of the maze this is, counting from 0 at the top
+  int length;
+  long[] bits; // bit 2 * x is the passage right of cell x, bit 2 * x + 1 the passage below it
+
+  // constructor for MazeRow, every cell starts out with all four of its walls
+  MazeRow(int y, int length) {
+    this.y = y;
+    this.length = length;
+    this.bits = new long[(int) ((length * 2L + 63) / 64)];
+  }
+
+  // returns whether the passage to the right of the given cell is open
+  boolean right(int x) {
+    return (this.bits[x >>> 5] & (1L << (2 * x))) != 0;
+  }
+
+  // returns whether the passage below the given cell, into the next row, is open
+  boolean bottom(int x) {
+    return (this.bits[x >>> 5] & (1L << (2 * x + 1))) != 0;
+  }
+
+  // EFFECT: opens the passage to the right of the given cell
+  void openRight(int x) {
+    this.bits[x >>> 5] |= 1L << (2 * x);
+  }
+
+  // EFFECT: opens the passage below the given cell
+  void openBottom(int x) {
+    this.bits[x >>> 5] |= 1L << (2 * x + 1);
+  }
+}
+
+// represents a maze generator that hands out one row at a time with Eller's algorithm, only
+// the set each cell of the current row belongs to is remembered, so the memory used depends on
+// the width of the maze and never on its height
+class EllerGenerator implements Iterator<MazeRow> {
+  int width;
+  int height; // Integer.MAX_VALUE for a maze that never closes
+  RandomGenerator rand;
+  int y; // the row handed out next
+
+  int[] sets; // the set of every cell in the current row, always numbered below width
+  DisjointSet rowSets; // joins the sets of the current row as passages are opened
+  int[] remaining; // how many cells of each set are left to decide on going down
+  boolean[] goesDown; // whether some cell of each set already opened a passage down
+  int[] renumber; // the new number of each old set, or -1, while moving to the next row
+
+  // constructor for EllerGenerator
+  EllerGenerator(int width, int height, RandomGenerator rand) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("A maze needs at least one row and one column");
+    }
+    this.width = width;
+    this.height = height;
+    this.rand = rand;
+    this.sets = new int[width];
+    for (int x = 0; x < width; x++) {
+      this.sets[x] = x;
+    }
+    this.rowSets = new DisjointSet(width);
+    this.remaining = new int[width];
+    this.goesDown = new boolean[width];
+    // the cells that do not go down are numbered from width up before renumbering
+    this.renumber = new int[2 * width];
+    Arrays.fill(this.renumber, -1);
+  }
+
+  // builds the whole maze into a WallGrid, for mazes small enough to keep in memory
+  static WallGrid generate(int width, int height, RandomGenerator rand) {
+    WallGrid grid = new WallGrid(width, height);
+    EllerGenerator rows = new EllerGenerator(width, height, rand);
+    while (rows.hasNext()) {
+      MazeRow row = rows.next();
+      int start = row.y * width;
+      for (int x = 0; x < width; x++) {
+        if (row.right(x)) {
+          grid.connect(start + x, start + x + 1);
+        }
+        if (row.bottom(x)) {
+          grid.connect(start + x, start + x + width);
+        }
+      }
+    }
+    return grid;
+  }
+
+  // returns whether there are rows left to hand out
+  public boolean hasNext() {
+    return this.y < this.height;
+  }
+
+  // returns the next row of the maze, the last row joins everything still apart
+  // EFFECT: moves the sets on to the row after the returned one
+  public MazeRow next() {
+    if (!this.hasNext()) {
+      throw new NoSuchElementException("Every row of the maze has been taken");
+    }
+    boolean last = this.y == this.height - 1;
+    MazeRow row = new MazeRow(this.y, this.width);
+    this.y++;
+
+    // opens passages between neighbors in different sets, all of them on the last row
+    this.rowSets.reset();
+    for (int x = 0; x < this.width - 1; x++) {
+      if (this.rowSets.find(this.sets[x]) != this.rowSets.find(this.sets[x + 1])
+          && (last || this.rand.nextBoolean())) {
+        this.rowSets.union(this.sets[x], this.sets[x + 1]);
+        row.openRight(x);
+      }
+    }
+    if (last) {
+      return row;
+    }
+
+    // every set opens at least one passage down so no part of the maze is cut off
+    for (int x = 0; x < this.width; x++) {
+      this.sets[x] = this.rowSets.find(this.sets[x]);
+      this.remaining[this.sets[x]]++;
+    }
+    for (int x = 0; x < this.width; x++) {
+      int set = this.sets[x];
+      this.remaining[set]--;
+      if (this.rand.nextBoolean() || (this.remaining[set] == 0 && !this.goesDown[set])) {
+        row.openBottom(x);
+        this.goesDown[set] = true;
+      }
+      else {
+        // the cell below starts a set of its own
+        this.sets[x] = this.width + x;
+      }
+    }
+
+    // numbers the sets of the next row from 0 again so they stay below width
+    int next = 0;
+    for (int x = 0; x < this.width; x++) {
+      if (this.sets[x] < this.width) {
+        this.goesDown[this.sets[x]] = false;
+      }
+      if (this.renumber[this.sets[x]] == -1) {
+        this.renumber[this.sets[x]] = next;
+        next++;
+      }
+    }
+    for (int x = 0; x < this.width; x++) {
+      this.sets[x] = this.renumber[this.sets[x]];
+    }
+    Arrays.fill(this.renumber, -1);
+    return row;
+  }
+}
+
+// class for testing the EllerGenerator
+class ExampleEllerGenerator {
+  EllerGenerator rows1;
+  EllerGenerator endless;
+
+  // initializes the data for testing
+  void initData() {
+    this.rows1 = new EllerGenerator(4, 2, new SplittableRandom(3));
+    this.endless = new EllerGenerator(8, Integer.MAX_VALUE, new SplittableRandom(3));
+  }
+
+  // returns the number of open passages in the grid
+  int passages(WallGrid grid) {
+    int open = 0;
+    for (int pos = 0; pos < grid.cells(); pos++) {
+      if (grid.right(pos) != -1) {
+        open++;
+      }
+      if (grid.bottom(pos) != -1) {
+        open++;
+      }
+    }
+    return open;
+  }
+
+  // returns the number of cells that can be reached from the top left cell of the grid
+  int reachable(WallGrid grid) {
+    return new MazeEngine(grid).search("bfs", 0, -1, new IntQueue(16)).expanded;
+  }
+
+  void testPerfectMaze(Tester t) {
+    // a perfect maze has every cell reachable and exactly one fewer passage than cells
+    WallGrid grid1 = EllerGenerator.generate(30, 20, new SplittableRandom(7));
+    t.checkExpect(this.passages(grid1), 599);
+    t.checkExpect(this.reachable(grid1), 600);
+    WallGrid grid2 = EllerGenerator.generate(1, 5, new SplittableRandom(7));
+    t.checkExpect(this.passages(grid2), 4);
+    WallGrid grid3 = EllerGenerator.generate(5, 1, new SplittableRandom(7));
+    t.checkExpect(this.passages(grid3), 4);
+    WallGrid grid4 = EllerGenerator.generate(200, 150, new SplittableRandom(8));
+    t.checkExpect(this.reachable(grid4), 30000);
+  }
+
+  void testRows(Tester t) {
+    this.initData();
+    MazeRow first = this.rows1.next();
+    t.checkExpect(first.y, 0);
+    t.checkExpect(this.rows1.hasNext(), true);
+    MazeRow last = this.rows1.next();
+    t.checkExpect(last.y, 1);
+    t.checkExpect(this.rows1.hasNext(), false);
+    // the last row opens every passage between cells that are still apart and none below
+    for (int x = 0; x < 4; x++) {
+      t.checkExpect(last.bottom(x), false);
+    }
+    t.checkException(new NoSuchElementException("Every row of the maze has been taken"),
+        this.rows1, "next");
+  }
+
+  void testMazeRow(Tester t) {
+    MazeRow row = new MazeRow(0, 40);
+    row.openRight(33);
+    row.openBottom(2);
+    t.checkExpect(row.right(33), true);
+    t.checkExpect(row.bottom(33), false);
+    t.checkExpect(row.bottom(2), true);
+    t.checkExpect(row.bits.length, 2);
+  }
+
+  void testDeterministic(Tester t) {
+    t.checkExpect(EllerGenerator.generate(30, 20, new SplittableRandom(7)).bits,
+        EllerGenerator.generate(30, 20, new SplittableRandom(7)).bits);
+    t.checkFail(EllerGenerator.generate(30, 20, new SplittableRandom(7)).bits,
+        EllerGenerator.generate(30, 20, new SplittableRandom(8)).bits);
+  }
+
+  void testEndless(Tester t) {
+    this.initData();
+    // the sets stay numbered below the width however many rows go by
+    for (int i = 0; i < 100000; i++) {
+      this.endless.next();
+    }
+    t.checkExpect(this.endless.hasNext(), true);
+    t.checkExpect(this.endless.next().y, 100000);
+    boolean small = true;
+    for (int x = 0; x < 8; x++) {
+      small = small && this.endless.sets[x] < 8;
+    }
+    t.checkExpect(small, true);
+    t.checkExpect(this.endless.renumber.length, 16);
+  }
+
+  void testBadArguments(Tester t) {
+    t.checkConstructorException(
+        new IllegalArgumentException("A maze needs at least one row and one column"),
+        "EllerGenerator", 0, 5, new SplittableRandom(1));
+  }
+}
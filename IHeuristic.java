@@ -0,0 +1,38 @@
+import tester.*;
+
+// represents an estimate of how far a cell is from the goal cell of a maze
+interface IHeuristic {
+  // returns a guess at the number of moves from pos to goal, in a maze with the given number
+  // of columns, that is never more than the real number of moves
+  int estimate(int pos, int goal, int length);
+}
+
+// a heuristic that never guesses, which turns A* into Dijkstra's algorithm
+class ZeroHeuristic implements IHeuristic {
+  // returns 0 for every cell
+  public int estimate(int pos, int goal, int length) {
+    return 0;
+  }
+}
+
+// a heuristic that counts the rows and columns between the cell and the goal
+class ManhattanHeuristic implements IHeuristic {
+  // returns the number of moves between pos and goal if there were no walls
+  public int estimate(int pos, int goal, int length) {
+    return Math.abs(pos % length - goal % length) + Math.abs(pos / length - goal / length);
+  }
+}
+
+// class for testing the heuristics
+class ExampleHeuristic {
+  IHeuristic zero = new ZeroHeuristic();
+  IHeuristic manhattan = new ManhattanHeuristic();
+
+  void testEstimate(Tester t) {
+    t.checkExpect(this.zero.estimate(0, 24, 5), 0);
+    t.checkExpect(this.zero.estimate(24, 24, 5), 0);
+    t.checkExpect(this.manhattan.estimate(0, 24, 5), 8);
+    t.checkExpect(this.manhattan.estimate(24, 24, 5), 0);
+    t.checkExpect(this.manhattan.estimate(9, 15, 5), 6);
+  }
+}
@@ -0,0 +1,270 @@
+import java.util.Arrays;
+import tester.*;
+
+// represents a mutable collection of cell positions waiting to be expanded by a search
+interface IWorklist {
+  // Is this worklist empty?
+  boolean isEmpty();
+
+  // returns whether this is the shortest way to the position the worklist has been given, so
+  // the search knows whether to remember where the position was reached from
+  // EFFECT: adds the position to the worklist
+  boolean add(int pos);
+
+  // Returns the next position of the worklist
+  // EFFECT: removes that position
+  int remove();
+}
+
+// represents a worklist where the positions are first in first out
+class IntQueue implements IWorklist {
+  int[] items;
+  int head = 0; // the index of the next position to remove
+  int tail = 0; // the index the next position added goes to
+
+  // constructor for IntQueue with room for the given number of positions before growing
+  IntQueue(int capacity) {
+    this.items = new int[Math.max(capacity, 1)];
+  }
+
+  // Is this worklist empty?
+  public boolean isEmpty() {
+    return this.head == this.tail;
+  }
+
+  // returns true, a queue can not tell one way to a position from another
+  // EFFECT: adds the position to the end of the worklist
+  public boolean add(int pos) {
+    if (this.tail == this.items.length) {
+      // slides the waiting positions to the front if that frees up half the room, grows if not
+      if (this.head * 2 >= this.items.length) {
+        System.arraycopy(this.items, this.head, this.items, 0, this.tail - this.head);
+      }
+      else {
+        this.items = Arrays.copyOf(this.items, this.items.length * 2);
+        System.arraycopy(this.items, this.head, this.items, 0, this.tail - this.head);
+      }
+      this.tail -= this.head;
+      this.head = 0;
+    }
+    this.items[this.tail] = pos;
+    this.tail++;
+    return true;
+  }
+
+  // Returns the first position of the worklist
+  // EFFECT: removes that first position
+  public int remove() {
+    int pos = this.items[this.head];
+    this.head++;
+    return pos;
+  }
+}
+
+// represents a worklist where the positions are last in first out
+class IntStack implements IWorklist {
+  int[] items;
+  int size = 0;
+
+  // constructor for IntStack with room for the given number of positions before growing
+  IntStack(int capacity) {
+    this.items = new int[Math.max(capacity, 1)];
+  }
+
+  // Is this worklist empty?
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  // returns true, a stack can not tell one way to a position from another
+  // EFFECT: adds the position to the top of the worklist
+  public boolean add(int pos) {
+    if (this.size == this.items.length) {
+      this.items = Arrays.copyOf(this.items, this.size * 2);
+    }
+    this.items[this.size] = pos;
+    this.size++;
+    return true;
+  }
+
+  // Returns the position on top of the worklist
+  // EFFECT: removes that position
+  public int remove() {
+    this.size--;
+    return this.items[this.size];
+  }
+}
+
+// represents a worklist where the position with the lowest cost so far plus estimated cost to
+// the goal comes out first, every position added is one move further than the position last
+// removed, which is how a search feeds its worklist
+class HeapWorklist implements IWorklist {
+  IntMinHeap heap; // the positions, keyed by their priority
+  int[] cost; // the number of moves from the first position added, indexed by position
+  int lastRemoved = -1; // the position that was last removed
+  int[] goals; // the positions the search is heading for, the closest one guides it
+  int length; // number of columns in the maze the positions come from
+  IHeuristic heuristic;
+
+  // constructor for HeapWorklist over a maze with the given number of cells and columns
+  HeapWorklist(int cells, int length, int goal, IHeuristic heuristic) {
+    this(cells, length, new int[] {goal}, heuristic);
+  }
+
+  // constructor for HeapWorklist heading for whichever of the given goals is closest
+  HeapWorklist(int cells, int length, int[] goals, IHeuristic heuristic) {
+    this.heap = new IntMinHeap(16);
+    this.cost = new int[cells];
+    Arrays.fill(this.cost, Integer.MAX_VALUE);
+    this.length = length;
+    this.goals = goals;
+    this.heuristic = heuristic;
+  }
+
+  // Is this worklist empty?
+  public boolean isEmpty() {
+    return this.heap.isEmpty();
+  }
+
+  // Returns the position with the lowest priority
+  // EFFECT: removes that position
+  public int remove() {
+    this.lastRemoved = this.heap.removeMin();
+    return this.lastRemoved;
+  }
+
+  // returns whether the position is fewer moves away this way than any way it was added before
+  // EFFECT: adds the position one move further than the position last removed, unless it was
+  // already added at least as close, once a maze has loops a position can be added again
+  // by a longer way round and that way must neither win nor be searched again
+  public boolean add(int pos) {
+    int moves = 0;
+    if (this.lastRemoved != -1) {
+      moves = this.cost[this.lastRemoved] + 1;
+    }
+    if (moves >= this.cost[pos]) {
+      return false;
+    }
+    this.cost[pos] = moves;
+    this.heap.insert(pos, moves + this.estimate(pos));
+    return true;
+  }
+
+  // returns the smallest guess of the heuristic from pos to any of the goals, which is never
+  // more than the moves to the closest goal since no single guess is, or 0 with no goals
+  int estimate(int pos) {
+    if (this.goals.length == 0) {
+      return 0;
+    }
+    int best = Integer.MAX_VALUE;
+    for (int i = 0; i < this.goals.length; i++) {
+      best = Math.min(best, this.heuristic.estimate(pos, this.goals[i], this.length));
+    }
+    return best;
+  }
+}
+
+// class for testing the worklists
+class ExampleWorklist {
+  IntQueue queue1;
+  IntStack stack1;
+  HeapWorklist dijkstra;
+  HeapWorklist aStar;
+
+  // initializes the data for testing
+  void initData() {
+    this.queue1 = new IntQueue(2);
+    this.stack1 = new IntStack(2);
+    this.dijkstra = new HeapWorklist(9, 3, 8, new ZeroHeuristic());
+    this.aStar = new HeapWorklist(9, 3, 8, new ManhattanHeuristic());
+  }
+
+  void testIsEmpty(Tester t) {
+    this.initData();
+    t.checkExpect(this.queue1.isEmpty(), true);
+    t.checkExpect(this.stack1.isEmpty(), true);
+    t.checkExpect(this.dijkstra.isEmpty(), true);
+    this.queue1.add(3);
+    this.stack1.add(3);
+    this.dijkstra.add(3);
+    t.checkExpect(this.queue1.isEmpty(), false);
+    t.checkExpect(this.stack1.isEmpty(), false);
+    t.checkExpect(this.dijkstra.isEmpty(), false);
+  }
+
+  void testIntQueue(Tester t) {
+    this.initData();
+    this.queue1.add(1);
+    this.queue1.add(2);
+    this.queue1.add(3);
+    t.checkExpect(this.queue1.remove(), 1);
+    this.queue1.add(4);
+    this.queue1.add(5);
+    t.checkExpect(this.queue1.remove(), 2);
+    t.checkExpect(this.queue1.remove(), 3);
+    t.checkExpect(this.queue1.remove(), 4);
+    this.queue1.add(6);
+    t.checkExpect(this.queue1.remove(), 5);
+    t.checkExpect(this.queue1.remove(), 6);
+    t.checkExpect(this.queue1.isEmpty(), true);
+  }
+
+  void testIntStack(Tester t) {
+    this.initData();
+    this.stack1.add(1);
+    this.stack1.add(2);
+    this.stack1.add(3);
+    t.checkExpect(this.stack1.remove(), 3);
+    t.checkExpect(this.stack1.remove(), 2);
+    this.stack1.add(4);
+    t.checkExpect(this.stack1.remove(), 4);
+    t.checkExpect(this.stack1.remove(), 1);
+  }
+
+  void testHeapWorklist(Tester t) {
+    this.initData();
+    this.dijkstra.add(0);
+    t.checkExpect(this.dijkstra.remove(), 0);
+    this.dijkstra.add(1);
+    this.dijkstra.add(3);
+    t.checkExpect(this.dijkstra.cost[3], 1);
+    t.checkExpect(this.dijkstra.remove(), 1);
+    this.dijkstra.add(2);
+    t.checkExpect(this.dijkstra.cost[2], 2);
+    t.checkExpect(this.dijkstra.remove(), 3);
+    t.checkExpect(this.dijkstra.remove(), 2);
+
+    // A* prefers the position that is closer to the goal
+    this.aStar.add(1);
+    this.aStar.add(3);
+    this.aStar.add(5);
+    t.checkExpect(this.aStar.remove(), 5);
+    t.checkExpect(this.aStar.remove(), 1);
+  }
+
+  void testHeapWorklistLongerWay(Tester t) {
+    this.initData();
+    t.checkExpect(this.dijkstra.add(0), true);
+    this.dijkstra.remove();
+    t.checkExpect(this.dijkstra.add(1), true);
+    t.checkExpect(this.dijkstra.add(3), true);
+    this.dijkstra.remove();
+    // 4 is two moves away through 1, and no shorter through 3
+    t.checkExpect(this.dijkstra.add(4), true);
+    this.dijkstra.remove();
+    t.checkExpect(this.dijkstra.add(4), false);
+    t.checkExpect(this.dijkstra.cost[4], 2);
+    t.checkExpect(this.queue1.add(4), true);
+    t.checkExpect(this.stack1.add(4), true);
+  }
+
+  void testEstimateManyGoals(Tester t) {
+    HeapWorklist corners = new HeapWorklist(9, 3, new int[] {2, 6}, new ManhattanHeuristic());
+    // the closest goal is the one that counts
+    t.checkExpect(corners.estimate(0), 2);
+    t.checkExpect(corners.estimate(5), 1);
+    t.checkExpect(corners.estimate(6), 0);
+    t.checkExpect(new HeapWorklist(9, 3, new int[0], new ManhattanHeuristic()).estimate(4),
+        0);
+  }
+}
@@ -0,0 +1,197 @@
+import java.util.Arrays;
+import tester.*;
+
+// represents a binary min-heap of the items 0 up to a fixed capacity keyed by long priorities,
+// which also knows where in the heap each item sits, so the key of an item already in the heap
+// can be lowered in place instead of adding the item a second time
+class IndexedMinHeap {
+  int[] items; // the items, laid out as a binary tree
+  long[] keys; // the key of each item, indexed by item
+  int[] slots; // where each item sits in items, or -1 if it is not in the heap
+  int size = 0;
+
+  // constructor for IndexedMinHeap over the items 0 up to but not including capacity
+  IndexedMinHeap(int capacity) {
+    this.items = new int[capacity];
+    this.keys = new long[capacity];
+    this.slots = new int[capacity];
+    Arrays.fill(this.slots, -1);
+  }
+
+  // Is this heap empty?
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  // returns whether the given item is in the heap
+  boolean contains(int item) {
+    return this.slots[item] != -1;
+  }
+
+  // returns the key of the given item, the last one it had if it was removed
+  long keyOf(int item) {
+    return this.keys[item];
+  }
+
+  // EFFECT: adds the item with the given key, or lowers its key if it is already in the heap
+  // with a bigger one
+  void insertOrDecrease(int item, long key) {
+    if (this.contains(item)) {
+      this.decreaseKey(item, key);
+    }
+    else {
+      this.slots[item] = this.size;
+      this.items[this.size] = item;
+      this.size++;
+      this.keys[item] = key;
+      this.siftUp(this.slots[item]);
+    }
+  }
+
+  // EFFECT: lowers the key of an item in the heap, leaving it alone if the key is not lower
+  void decreaseKey(int item, long key) {
+    if (key < this.keys[item]) {
+      this.keys[item] = key;
+      this.siftUp(this.slots[item]);
+    }
+  }
+
+  // returns the item with the smallest key
+  // EFFECT: removes that item from the heap
+  int removeMin() {
+    int min = this.items[0];
+    this.size--;
+    this.place(this.items[this.size], 0);
+    this.slots[min] = -1;
+    if (this.size > 0) {
+      this.siftDown(0);
+    }
+    return min;
+  }
+
+  // EFFECT: moves the item at the given slot up until its parent's key is not bigger
+  void siftUp(int slot) {
+    int item = this.items[slot];
+    int index = slot;
+    while (index > 0) {
+      int parent = (index - 1) / 2;
+      if (this.keys[this.items[parent]] <= this.keys[item]) {
+        break;
+      }
+      this.place(this.items[parent], index);
+      index = parent;
+    }
+    this.place(item, index);
+  }
+
+  // EFFECT: moves the item at the given slot down until neither child has a smaller key
+  void siftDown(int slot) {
+    int item = this.items[slot];
+    int index = slot;
+    while (2 * index + 1 < this.size) {
+      int child = 2 * index + 1;
+      if (child + 1 < this.size
+          && this.keys[this.items[child + 1]] < this.keys[this.items[child]]) {
+        child++;
+      }
+      if (this.keys[item] <= this.keys[this.items[child]]) {
+        break;
+      }
+      this.place(this.items[child], index);
+      index = child;
+    }
+    this.place(item, index);
+  }
+
+  // EFFECT: takes every item out of the heap, which only costs as much as there are items left
+  // in it, so one heap can serve many searches
+  void clear() {
+    for (int i = 0; i < this.size; i++) {
+      this.slots[this.items[i]] = -1;
+    }
+    this.size = 0;
+  }
+
+  // EFFECT: puts the item in the given slot and remembers that it is there
+  void place(int item, int slot) {
+    this.items[slot] = item;
+    this.slots[item] = slot;
+  }
+}
+
+// class for testing the IndexedMinHeap
+class ExampleIndexedMinHeap {
+  IndexedMinHeap heap1;
+  IndexedMinHeap heap2;
+
+  // initializes the data for testing
+  void initData() {
+    this.heap1 = new IndexedMinHeap(10);
+    this.heap2 = new IndexedMinHeap(100);
+  }
+
+  void testInsertAndRemoveMin(Tester t) {
+    this.initData();
+    t.checkExpect(this.heap1.isEmpty(), true);
+    this.heap1.insertOrDecrease(7, 30);
+    this.heap1.insertOrDecrease(3, 10);
+    this.heap1.insertOrDecrease(9, 20);
+    this.heap1.insertOrDecrease(1, 5);
+    t.checkExpect(this.heap1.contains(9), true);
+    t.checkExpect(this.heap1.contains(2), false);
+    t.checkExpect(this.heap1.removeMin(), 1);
+    t.checkExpect(this.heap1.contains(1), false);
+    t.checkExpect(this.heap1.keyOf(1), 5L);
+    t.checkExpect(this.heap1.removeMin(), 3);
+    t.checkExpect(this.heap1.removeMin(), 9);
+    t.checkExpect(this.heap1.removeMin(), 7);
+    t.checkExpect(this.heap1.isEmpty(), true);
+  }
+
+  void testDecreaseKey(Tester t) {
+    this.initData();
+    this.heap1.insertOrDecrease(7, 30);
+    this.heap1.insertOrDecrease(3, 10);
+    this.heap1.insertOrDecrease(9, 20);
+    // lowering a key moves the item up, a bigger key is ignored
+    this.heap1.insertOrDecrease(7, 1);
+    this.heap1.insertOrDecrease(3, 50);
+    t.checkExpect(this.heap1.size, 3);
+    t.checkExpect(this.heap1.keyOf(3), 10L);
+    t.checkExpect(this.heap1.removeMin(), 7);
+    t.checkExpect(this.heap1.removeMin(), 3);
+    t.checkExpect(this.heap1.removeMin(), 9);
+  }
+
+  void testClear(Tester t) {
+    this.initData();
+    this.heap1.insertOrDecrease(7, 30);
+    this.heap1.insertOrDecrease(3, 10);
+    this.heap1.clear();
+    t.checkExpect(this.heap1.isEmpty(), true);
+    t.checkExpect(this.heap1.contains(7), false);
+    // the items can go in again as if they never had been
+    this.heap1.insertOrDecrease(7, 40);
+    t.checkExpect(this.heap1.keyOf(7), 40L);
+    t.checkExpect(this.heap1.removeMin(), 7);
+  }
+
+  void testManyItems(Tester t) {
+    this.initData();
+    for (int i = 0; i < 100; i++) {
+      this.heap2.insertOrDecrease(i, (i * 37) % 101 + 100);
+    }
+    for (int i = 0; i < 100; i += 3) {
+      this.heap2.decreaseKey(i, (i * 37) % 101);
+    }
+    boolean inOrder = true;
+    long lastKey = Long.MIN_VALUE;
+    for (int i = 0; i < 100; i++) {
+      int item = this.heap2.removeMin();
+      inOrder = inOrder && this.heap2.keyOf(item) >= lastKey;
+      lastKey = this.heap2.keyOf(item);
+    }
+    t.checkExpect(inOrder, true);
+    t.checkExpect(this.heap2.isEmpty(), true);
+  }
+}
@@ -0,0 +1,153 @@
+import java.util.Arrays;
+import tester.*;
+
+// represents a binary min-heap of int items keyed by int priorities, kept in parallel arrays
+// so adding and removing never boxes an item, items of equal key come out first in first out
+class IntMinHeap {
+  int[] items; // the items, laid out as a binary tree
+  int[] keys; // the priority of the item at the same index
+  int[] order; // when the item at the same index was inserted, used to break ties
+  int size = 0;
+  int inserted = 0;
+
+  // constructor for IntMinHeap with room for the given number of items before growing
+  IntMinHeap(int capacity) {
+    int room = Math.max(capacity, 1);
+    this.items = new int[room];
+    this.keys = new int[room];
+    this.order = new int[room];
+  }
+
+  // Is this heap empty?
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  // returns the key of the item that would be removed next
+  int minKey() {
+    return this.keys[0];
+  }
+
+  // EFFECT: adds the item to the heap with the given key
+  void insert(int item, int key) {
+    if (this.size == this.items.length) {
+      this.items = Arrays.copyOf(this.items, this.size * 2);
+      this.keys = Arrays.copyOf(this.keys, this.size * 2);
+      this.order = Arrays.copyOf(this.order, this.size * 2);
+    }
+    int index = this.size;
+    this.size++;
+    int stamp = this.inserted;
+    this.inserted++;
+
+    // moves parents down until the new item's spot is found
+    while (index > 0) {
+      int parent = (index - 1) / 2;
+      if (!this.before(key, stamp, parent)) {
+        break;
+      }
+      this.moveTo(parent, index);
+      index = parent;
+    }
+    this.items[index] = item;
+    this.keys[index] = key;
+    this.order[index] = stamp;
+  }
+
+  // returns the item with the smallest key
+  // EFFECT: removes that item from the heap
+  int removeMin() {
+    int min = this.items[0];
+    this.size--;
+    int item = this.items[this.size];
+    int key = this.keys[this.size];
+    int stamp = this.order[this.size];
+
+    // moves children up until the last item's spot is found
+    int index = 0;
+    while (2 * index + 1 < this.size) {
+      int child = 2 * index + 1;
+      if (child + 1 < this.size 
+          && this.before(this.keys[child + 1], this.order[child + 1], child)) {
+        child++;
+      }
+      if (this.before(key, stamp, child)) {
+        break;
+      }
+      this.moveTo(child, index);
+      index = child;
+    }
+    this.items[index] = item;
+    this.keys[index] = key;
+    this.order[index] = stamp;
+    return min;
+  }
+
+  // returns whether an item with the given key and stamp comes before the item at the index
+  boolean before(int key, int stamp, int index) {
+    return key < this.keys[index] || (key == this.keys[index] && stamp < this.order[index]);
+  }
+
+  // EFFECT: copies the entry at the index from to the index to
+  void moveTo(int from, int to) {
+    this.items[to] = this.items[from];
+    this.keys[to] = this.keys[from];
+    this.order[to] = this.order[from];
+  }
+}
+
+// class for testing the IntMinHeap
+class ExampleIntMinHeap {
+  IntMinHeap heap1;
+  IntMinHeap heap2;
+
+  // initializes the data for testing
+  void initData() {
+    this.heap1 = new IntMinHeap(2);
+    this.heap2 = new IntMinHeap(0);
+  }
+
+  void testIsEmpty(Tester t) {
+    this.initData();
+    t.checkExpect(this.heap1.isEmpty(), true);
+    this.heap1.insert(4, 10);
+    t.checkExpect(this.heap1.isEmpty(), false);
+    this.heap1.removeMin();
+    t.checkExpect(this.heap1.isEmpty(), true);
+  }
+
+  void testInsertAndRemoveMin(Tester t) {
+    this.initData();
+    this.heap1.insert(7, 30);
+    this.heap1.insert(3, 10);
+    this.heap1.insert(9, 20);
+    this.heap1.insert(1, 5);
+    this.heap1.insert(8, 40);
+    t.checkExpect(this.heap1.minKey(), 5);
+    t.checkExpect(this.heap1.removeMin(), 1);
+    t.checkExpect(this.heap1.removeMin(), 3);
+    t.checkExpect(this.heap1.removeMin(), 9);
+    t.checkExpect(this.heap1.removeMin(), 7);
+    t.checkExpect(this.heap1.removeMin(), 8);
+    t.checkExpect(this.heap1.size, 0);
+  }
+
+  void testTiesAreFirstInFirstOut(Tester t) {
+    this.initData();
+    for (int i = 0; i < 100; i++) {
+      this.heap2.insert(i, i % 3);
+    }
+    boolean inOrder = true;
+    int lastKey = 0;
+    int lastItem = -1;
+    for (int i = 0; i < 100; i++) {
+      int key = this.heap2.minKey();
+      int item = this.heap2.removeMin();
+      inOrder = inOrder && item % 3 == key 
+          && (key > lastKey || (key == lastKey && item > lastItem));
+      lastKey = key;
+      lastItem = item;
+    }
+    t.checkExpect(inOrder, true);
+  }
+}
@@ -0,0 +1,579 @@
+import java.util.Arrays;
+import java.util.Random;
+import tester.*;
+
+// represents a maze boiled down to its junctions: the cells where the way splits, the dead
+// ends and the cells that were asked to be kept, such as the start and the goals, every
+// corridor of cells with exactly two ways out between two junctions becomes one edge that
+// costs the summed weights of its passages, so a search steps over a whole corridor at once
+// dead ends can be filled in first, which drops every branch that leads nowhere but to a dead
+// end, since no path between two kept cells ever goes down one, in a perfect maze that leaves
+// only the path between the kept cells, so a filled graph only serves endpoints it kept while
+// a graph that was not filled serves any endpoints at all
+// the edges are kept in compressed rows: the edges leaving junction j are the ones from
+// firstEdge[j] up to but not including firstEdge[j + 1]
+class JunctionGraph {
+  WallGrid grid;
+  boolean[] pruned; // whether each cell was filled in as part of a dead end branch
+  int prunedCells;
+  int[] junctionOf; // the junction of each cell, or -1 if the cell is not a junction
+  int[] cellOf; // the cell of each junction
+  int[] firstEdge;
+  int[] target; // the junction each edge leads to
+  long[] cost; // the summed weights of the passages along each edge
+  int[] firstCell; // the cell each edge steps into first, which is enough to walk it again
+  int[] kept; // the cells that were asked to be kept
+  // the state of the searches, kept from one solve to the next so a solve only pays for the
+  // items it touches, the stamps say which solve last reached, settled or attached an item
+  // the items are the junctions followed by one item for each goal of the solve
+  IndexedMinHeap heap = null;
+  int[] reachedIn;
+  int[] settledIn;
+  int[] cameFromItem; // the junction each item was reached from, or -1 if from the start
+  // the edge or goal attachment each item was reached by, -1 for the start itself, or -2 minus
+  // the side of the corridor of the start the item was reached straight along
+  int[] cameBy;
+  int[] attachedIn; // the solve in which a goal last hung off each junction
+  int solves = 0;
+
+  // constructor for JunctionGraph over the given maze, keeping the given cells as junctions
+  // and filling in the dead ends first if asked to
+  JunctionGraph(WallGrid grid, int[] kept, boolean fillDeadEnds) {
+    this.grid = grid;
+    this.kept = kept.clone();
+    int cells = grid.cells();
+    boolean[] keep = new boolean[cells];
+    for (int i = 0; i < kept.length; i++) {
+      keep[kept[i]] = true;
+    }
+    int[] degree = new int[cells];
+    for (int pos = 0; pos < cells; pos++) {
+      degree[pos] = this.openSides(pos);
+    }
+
+    this.pruned = new boolean[cells];
+    if (fillDeadEnds) {
+      this.fillDeadEnds(degree, keep);
+    }
+
+    // every cell left that does not sit in the middle of a corridor is a junction
+    this.junctionOf = new int[cells];
+    Arrays.fill(this.junctionOf, -1);
+    int junctions = 0;
+    int edges = 0;
+    for (int pos = 0; pos < cells; pos++) {
+      if (!this.pruned[pos] && (keep[pos] || degree[pos] != 2)) {
+        this.junctionOf[pos] = junctions;
+        junctions++;
+        edges += degree[pos];
+      }
+    }
+    this.cellOf = new int[junctions];
+    this.firstEdge = new int[junctions + 1];
+    this.target = new int[edges];
+    this.cost = new long[edges];
+    this.firstCell = new int[edges];
+
+    // walks every corridor leaving every junction to the junction at its other end
+    int edge = 0;
+    for (int pos = 0; pos < cells; pos++) {
+      int junction = this.junctionOf[pos];
+      if (junction != -1) {
+        this.cellOf[junction] = pos;
+        this.firstEdge[junction] = edge;
+        int[] around = {grid.top(pos), grid.bottom(pos), grid.left(pos), grid.right(pos)};
+        for (int i = 0; i < around.length; i++) {
+          if (around[i] != -1 && !this.pruned[around[i]]) {
+            this.firstCell[edge] = around[i];
+            long walked = grid.weight(pos, around[i]);
+            int previous = pos;
+            int current = around[i];
+            while (this.junctionOf[current] == -1) {
+              int next = this.onward(current, previous);
+              walked += grid.weight(current, next);
+              previous = current;
+              current = next;
+            }
+            this.target[edge] = this.junctionOf[current];
+            this.cost[edge] = walked;
+            edge++;
+          }
+        }
+      }
+    }
+    this.firstEdge[junctions] = edge;
+  }
+
+  // returns the number of open passages around the given cell
+  int openSides(int pos) {
+    int open = 0;
+    if (this.grid.top(pos) != -1) {
+      open++;
+    }
+    if (this.grid.bottom(pos) != -1) {
+      open++;
+    }
+    if (this.grid.left(pos) != -1) {
+      open++;
+    }
+    if (this.grid.right(pos) != -1) {
+      open++;
+    }
+    return open;
+  }
+
+  // EFFECT: fills in every dead end that is not kept, then every cell that became a dead end
+  // because of it, until only cells with two ways out or kept cells are left at the ends
+  void fillDeadEnds(int[] degree, boolean[] keep) {
+    int cells = degree.length;
+    int[] deadEnds = new int[cells];
+    int count = 0;
+    for (int pos = 0; pos < cells; pos++) {
+      if (degree[pos] <= 1 && !keep[pos]) {
+        deadEnds[count] = pos;
+        count++;
+      }
+    }
+    while (count > 0) {
+      count--;
+      int pos = deadEnds[count];
+      this.pruned[pos] = true;
+      this.prunedCells++;
+      int[] around = {this.grid.top(pos), this.grid.bottom(pos), this.grid.left(pos),
+          this.grid.right(pos)};
+      for (int i = 0; i < around.length; i++) {
+        int neighbor = around[i];
+        if (neighbor != -1 && !this.pruned[neighbor]) {
+          degree[neighbor]--;
+          if (degree[neighbor] == 1 && !keep[neighbor]) {
+            deadEnds[count] = neighbor;
+            count++;
+          }
+        }
+      }
+    }
+  }
+
+  // returns the way out of the given corridor cell that does not go back to previous
+  int onward(int pos, int previous) {
+    int[] around = {this.grid.top(pos), this.grid.bottom(pos), this.grid.left(pos),
+        this.grid.right(pos)};
+    for (int i = 0; i < around.length; i++) {
+      if (around[i] != -1 && around[i] != previous && !this.pruned[around[i]]) {
+        return around[i];
+      }
+    }
+    return -1;
+  }
+
+  // returns the number of junctions
+  int junctions() {
+    return this.cellOf.length;
+  }
+
+  // returns the number of edges, counting each corridor once in each direction
+  int edges() {
+    return this.target.length;
+  }
+
+  // returns the cheapest way from the given cell to whichever of the goals is cheapest to
+  // reach, found by Dijkstra's algorithm over the junctions, with its path walked back out
+  // into every cell along the corridors so it reads like the solution of any other search,
+  // its visited order holds only the cells of the junctions that were settled
+  // an endpoint in the middle of a corridor is attached to the junctions at both ends of it,
+  // so the graph never has to be built again for other endpoints, and the start also reaches
+  // any goal on its own corridor straight along it
+  // EFFECT: bumps the number of solves and reuses the heap and stamps of the last solve
+  MazeSolution solve(int from, int[] goals) {
+    this.checkEndpoint(from);
+    for (int i = 0; i < goals.length; i++) {
+      this.checkEndpoint(goals[i]);
+    }
+    int junctions = this.junctions();
+    this.prepare(junctions + goals.length);
+
+    // the goals hang off the junctions at the ends of their corridors, a goal whose corridor
+    // runs into the start is reached straight from the start instead
+    int[] attachedTo = new int[2 * goals.length];
+    int[] attachedGoal = new int[2 * goals.length];
+    int[] attachedStep = new int[2 * goals.length]; // the first cell from the goal, or -1
+    long[] attachedCost = new long[2 * goals.length];
+    int attached = 0;
+    for (int goal = 0; goal < goals.length; goal++) {
+      int pos = goals[goal];
+      if (pos == from) {
+        this.relax(junctions + goal, 0, -1, -1);
+      }
+      else if (this.junctionOf[pos] != -1) {
+        attachedTo[attached] = this.junctionOf[pos];
+        attachedGoal[attached] = goal;
+        attachedStep[attached] = -1;
+        attached++;
+      }
+      else {
+        int[] sides = this.sides(pos);
+        for (int side = 0; side < sides.length; side++) {
+          int previous = pos;
+          int current = sides[side];
+          long walked = this.grid.weight(pos, current);
+          while (this.junctionOf[current] == -1 && current != from && current != pos) {
+            int next = this.onward(current, previous);
+            walked += this.grid.weight(current, next);
+            previous = current;
+            current = next;
+          }
+          if (this.junctionOf[current] != -1) {
+            attachedTo[attached] = this.junctionOf[current];
+            attachedGoal[attached] = goal;
+            attachedStep[attached] = sides[side];
+            attachedCost[attached] = walked;
+            attached++;
+          }
+        }
+      }
+    }
+    for (int i = 0; i < attached; i++) {
+      this.attachedIn[attachedTo[i]] = this.solves;
+    }
+
+    // the start is either a junction itself or walks out to the junctions at both ends of its
+    // corridor, passing any goals on the way
+    int[] startSides = new int[0];
+    if (this.junctionOf[from] != -1) {
+      this.relax(this.junctionOf[from], 0, -1, -1);
+    }
+    else {
+      startSides = this.sides(from);
+      for (int side = 0; side < startSides.length; side++) {
+        int previous = from;
+        int current = startSides[side];
+        long walked = this.grid.weight(from, current);
+        while (current != from) {
+          for (int goal = 0; goal < goals.length; goal++) {
+            if (goals[goal] == current) {
+              this.relax(junctions + goal, walked, -1, -2 - side);
+            }
+          }
+          if (this.junctionOf[current] != -1) {
+            this.relax(this.junctionOf[current], walked, -1, -2 - side);
+            break;
+          }
+          int next = this.onward(current, previous);
+          walked += this.grid.weight(current, next);
+          previous = current;
+          current = next;
+        }
+      }
+    }
+
+    IntStack visitedOrder = new IntStack(16);
+    int maxWorklist = this.heap.size;
+    int reached = -1;
+    while (!this.heap.isEmpty()) {
+      int next = this.heap.removeMin();
+      this.settledIn[next] = this.solves;
+      if (next >= junctions) {
+        reached = next - junctions;
+        break;
+      }
+      visitedOrder.add(this.cellOf[next]);
+      long key = this.heap.keyOf(next);
+      if (this.attachedIn[next] == this.solves) {
+        for (int i = 0; i < attached; i++) {
+          if (attachedTo[i] == next) {
+            this.relax(junctions + attachedGoal[i], key + attachedCost[i], next, i);
+          }
+        }
+      }
+      for (int edge = this.firstEdge[next]; edge < this.firstEdge[next + 1]; edge++) {
+        int other = this.target[edge];
+        // a dead end that is not the way to a goal leads nowhere
+        if (this.firstEdge[other + 1] - this.firstEdge[other] > 1
+            || this.attachedIn[other] == this.solves) {
+          this.relax(other, key + this.cost[edge], next, edge);
+        }
+      }
+      maxWorklist = Math.max(maxWorklist, this.heap.size);
+    }
+
+    IntStack path = new IntStack(16);
+    int to = goals[0];
+    long pathCost = -1;
+    if (reached != -1) {
+      to = goals[reached];
+      int goalItem = junctions + reached;
+      pathCost = this.heap.keyOf(goalItem);
+      int last = this.cameFromItem[goalItem];
+      path.add(from);
+      if (last == -1) {
+        if (this.cameBy[goalItem] != -1) {
+          this.walk(from, startSides[-2 - this.cameBy[goalItem]], to, path);
+        }
+      }
+      else {
+        IntStack chain = new IntStack(16);
+        for (int junction = last; junction != -1; junction = this.cameFromItem[junction]) {
+          chain.add(junction);
+        }
+        int first = chain.items[chain.size - 1];
+        if (this.cameBy[first] != -1) {
+          this.walk(from, startSides[-2 - this.cameBy[first]], this.cellOf[first], path);
+        }
+        for (int i = chain.size - 2; i >= 0; i--) {
+          int junction = chain.items[i];
+          this.walk(this.cellOf[this.cameFromItem[junction]],
+              this.firstCell[this.cameBy[junction]], this.cellOf[junction], path);
+        }
+        int attachment = this.cameBy[goalItem];
+        if (attachedStep[attachment] != -1) {
+          IntStack back = new IntStack(16);
+          this.walk(to, attachedStep[attachment], this.cellOf[last], back);
+          for (int i = back.size - 2; i >= 0; i--) {
+            path.add(back.items[i]);
+          }
+          path.add(to);
+        }
+      }
+    }
+    this.heap.clear();
+    MazeSolution solution = new MazeSolution("junction", from, to,
+        Arrays.copyOf(visitedOrder.items, visitedOrder.size), null, visitedOrder.size,
+        maxWorklist, reached != -1);
+    solution.path = Arrays.copyOf(path.items, path.size);
+    solution.cost = pathCost;
+    return solution;
+  }
+
+  // EFFECT: throws an IllegalArgumentException if the given cell was filled in
+  void checkEndpoint(int pos) {
+    if (this.pruned[pos]) {
+      throw new IllegalArgumentException("Endpoints have to be kept in the junction graph");
+    }
+  }
+
+  // returns the two ways out of the given corridor cell
+  int[] sides(int pos) {
+    int first = this.onward(pos, -1);
+    return new int[] {first, this.onward(pos, first)};
+  }
+
+  // EFFECT: starts a new solve over the given number of items, making room for them if the
+  // last solves had fewer
+  void prepare(int items) {
+    if (this.heap == null || this.heap.slots.length < items) {
+      this.heap = new IndexedMinHeap(items);
+      this.reachedIn = new int[items];
+      this.settledIn = new int[items];
+      this.cameFromItem = new int[items];
+      this.cameBy = new int[items];
+      this.attachedIn = new int[this.junctions()];
+    }
+    this.heap.clear();
+    this.solves++;
+  }
+
+  // EFFECT: puts the item on the heap with the given key unless it was settled already or is
+  // on the heap with a key no bigger, remembering the item and the edge it came by
+  void relax(int item, long key, int fromItem, int by) {
+    if (this.settledIn[item] != this.solves
+        && (this.reachedIn[item] != this.solves || key < this.heap.keyOf(item))) {
+      this.reachedIn[item] = this.solves;
+      this.heap.insertOrDecrease(item, key);
+      this.cameFromItem[item] = fromItem;
+      this.cameBy[item] = by;
+    }
+  }
+
+  // EFFECT: adds the cells of the corridor from start to out, stepping into first, up to and
+  // including the stop cell
+  void walk(int start, int first, int stop, IntStack out) {
+    int previous = start;
+    int current = first;
+    out.add(current);
+    while (current != stop) {
+      int next = this.onward(current, previous);
+      previous = current;
+      current = next;
+      out.add(current);
+    }
+  }
+}
+
+// class for testing the JunctionGraph
+class ExampleJunctionGraph {
+  MazeEngine engine3;
+  MazeEngine engine5;
+  int[] ends5 = {0, 5999};
+
+  // initializes the data for testing
+  void initData() {
+    this.engine3 = new MazeEngine();
+    this.engine3.generate(3, 3, 5);
+    this.engine5 = new MazeEngine();
+    this.engine5.generate(100, 60, 5);
+  }
+
+  void testSmallMaze(Tester t) {
+    this.initData();
+    // the path of the 3 by 3 maze is 0, 1, 4, 5, 8
+    JunctionGraph filled = new JunctionGraph(this.engine3.grid, new int[] {0, 8}, true);
+    t.checkExpect(filled.prunedCells, 4);
+    t.checkExpect(filled.junctions(), 2);
+    t.checkExpect(filled.edges(), 2);
+    t.checkExpect(filled.cost[0], 4L);
+    MazeSolution solution = filled.solve(0, new int[] {8});
+    t.checkExpect(solution.path(), new int[] {0, 1, 4, 5, 8});
+    t.checkExpect(solution.cost, 4L);
+    t.checkExpect(solution.visitedOrder, new int[] {0, 8});
+  }
+
+  void testCorridors(Tester t) {
+    this.initData();
+    JunctionGraph open = new JunctionGraph(this.engine5.grid, this.ends5, false);
+    t.checkExpect(open.prunedCells, 0);
+    // a Kruskal maze is full of short dead ends, which all stay junctions, so the corridors
+    // alone only take away about two cells in five
+    t.checkExpect(open.junctions(), 3447);
+    // a tree of junctions has one corridor fewer than it has junctions, each counted twice
+    t.checkExpect(open.edges(), 2 * (open.junctions() - 1));
+    MazeSolution bfs = this.engine5.solve("bfs");
+    MazeSolution solution = open.solve(0, new int[] {5999});
+    t.checkExpect(solution.path(), bfs.path());
+    t.checkExpect(solution.cost, (long) bfs.path().length - 1);
+    t.checkExpect(solution.expanded < bfs.expanded, true);
+  }
+
+  void testFillDeadEnds(Tester t) {
+    this.initData();
+    // filling in the dead ends of a perfect maze leaves only the path between the kept cells
+    JunctionGraph filled = new JunctionGraph(this.engine5.grid, this.ends5, true);
+    int pathCells = this.engine5.solve("bfs").path().length;
+    t.checkExpect(filled.prunedCells, 6000 - pathCells);
+    t.checkExpect(filled.junctions(), 2);
+    t.checkExpect(filled.solve(5999, new int[] {0}).path().length, pathCells);
+    // kept cells off the path keep their branches
+    JunctionGraph three = new JunctionGraph(this.engine5.grid, new int[] {0, 5999, 3050}, true);
+    t.checkExpect(three.solve(0, new int[] {3050}).path(),
+        this.engine5.solve("bfs", 0, 3050).path());
+    t.checkExpect(three.solve(3050, new int[] {5999, 0}).to,
+        this.engine5.solve("bfs", 3050, 5999, 0).to);
+  }
+
+  void testBraided(Tester t) {
+    this.initData();
+    MazeEngine braided = new MazeEngine();
+    braided.braid = 0.3;
+    braided.generate(100, 60, 5);
+    MazeSolution weighted = braided.solve("weighted");
+    // the corridors add up the weights, so the cheapest path is the same either way
+    JunctionGraph open = new JunctionGraph(braided.grid, this.ends5, false);
+    JunctionGraph filled = new JunctionGraph(braided.grid, this.ends5, true);
+    t.checkExpect(open.solve(0, new int[] {5999}).cost, weighted.cost);
+    t.checkExpect(filled.solve(0, new int[] {5999}).cost, weighted.cost);
+    t.checkExpect(filled.junctions() < open.junctions(), true);
+  }
+
+  void testBadEndpoints(Tester t) {
+    this.initData();
+    // cells 2 and 3 are off the path of the 3 by 3 maze, so they are filled in
+    JunctionGraph filled = new JunctionGraph(this.engine3.grid, new int[] {0, 8}, true);
+    t.checkException(
+        new IllegalArgumentException("Endpoints have to be kept in the junction graph"),
+        filled, "solve", 2, new int[] {8});
+    t.checkException(
+        new IllegalArgumentException("Endpoints have to be kept in the junction graph"),
+        filled, "solve", 0, new int[] {3});
+  }
+
+  void testCorridorEndpoints(Tester t) {
+    this.initData();
+    // cell 5 sits in the corridor from 4 to 8, cells 3 and 6 in the one from 4 to 7
+    JunctionGraph open = new JunctionGraph(this.engine3.grid, new int[0], false);
+    t.checkExpect(open.junctionOf[5], -1);
+    t.checkExpect(open.junctionOf[3], -1);
+    t.checkExpect(open.solve(3, new int[] {6}).path(), new int[] {3, 6});
+    t.checkExpect(open.solve(6, new int[] {3}).path(), new int[] {6, 3});
+    t.checkExpect(open.solve(5, new int[] {3}).path(), new int[] {5, 4, 3});
+    t.checkExpect(open.solve(1, new int[] {5}).path(), new int[] {1, 4, 5});
+    t.checkExpect(open.solve(5, new int[] {1}).path(), new int[] {5, 4, 1});
+    t.checkExpect(open.solve(4, new int[] {8}).path(), new int[] {4, 5, 8});
+    t.checkExpect(open.solve(4, new int[] {4}).path(), new int[] {4});
+    t.checkExpect(open.solve(4, new int[] {4}).cost, 0L);
+    t.checkExpect(open.solve(1, new int[] {5}).cost, 2L);
+    // the closer of two goals wins, wherever they are
+    t.checkExpect(open.solve(4, new int[] {0, 5}).to, 5);
+    for (int from = 0; from < 9; from++) {
+      for (int to = 0; to < 9; to++) {
+        t.checkExpect(open.solve(from, new int[] {to}).path(),
+            this.engine3.solve("bfs", from, to).path());
+      }
+    }
+  }
+
+  void testManyEndpoints(Tester t) {
+    this.initData();
+    JunctionGraph open = new JunctionGraph(this.engine5.grid, new int[0], false);
+    MazeEngine braided = new MazeEngine();
+    braided.braid = 0.3;
+    braided.generate(100, 60, 5);
+    JunctionGraph loops = new JunctionGraph(braided.grid, new int[0], false);
+    Random rand = new Random(3);
+    for (int i = 0; i < 200; i++) {
+      int from = rand.nextInt(6000);
+      int[] goals = {rand.nextInt(6000), rand.nextInt(6000)};
+      t.checkExpect(open.solve(from, goals).path(),
+          this.engine5.solve("bfs", from, goals).path());
+      MazeSolution weighted = braided.solve("weighted", from, goals);
+      MazeSolution solution = loops.solve(from, goals);
+      t.checkExpect(solution.cost, weighted.cost);
+      t.checkExpect(solution.to, weighted.to);
+      t.checkExpect(this.costOf(braided.grid, solution.path()), weighted.cost);
+    }
+  }
+
+  // returns the summed weights of the passages along the given path, or -1 if it goes
+  // through a wall
+  long costOf(WallGrid grid, int[] path) {
+    long cost = 0;
+    for (int i = 1; i < path.length; i++) {
+      int pos = path[i - 1];
+      if (path[i] != grid.top(pos) && path[i] != grid.bottom(pos) && path[i] != grid.left(pos)
+          && path[i] != grid.right(pos)) {
+        return -1;
+      }
+      cost += grid.weight(path[i - 1], path[i]);
+    }
+    return cost;
+  }
+
+  void testEngine(Tester t) {
+    this.initData();
+    MazeSolution first = this.engine5.solve("junction");
+    t.checkExpect(first.path(), this.engine5.solve("bfs").path());
+    JunctionGraph graph = this.engine5.junctions;
+    // every solve after the first uses the same graph, whatever its endpoints
+    int[][] ends = {{0, 5999}, {0, 3050}, {3050, 17}, {4321, 5999}, {5999, 0}, {812, 812}};
+    for (int i = 0; i < ends.length; i++) {
+      MazeSolution solution = this.engine5.solve("junction", ends[i][0], ends[i][1]);
+      t.checkExpect(solution.path(), this.engine5.solve("bfs", ends[i][0], ends[i][1]).path());
+      t.checkExpect(this.engine5.junctions == graph, true);
+    }
+    t.checkExpect(graph.solves, ends.length + 1);
+    this.engine5.generate(100, 60, 6);
+    t.checkExpect(this.engine5.junctions, null);
+  }
+
+  void testMaze(Tester t) {
+    Maze maze = new Maze(100, 60, new Random(5));
+    Maze searched = new Maze(100, 60, new Random(5));
+    maze.onKeyEvent("j");
+    maze.onKeyEvent("f");
+    searched.onKeyEvent("b");
+    searched.onKeyEvent("f");
+    // the same path is drawn after fewer nodes are shown
+    t.checkExpect(maze.solved, true);
+    t.checkExpect(maze.pathCount, searched.pathCount);
+    t.checkExpect(maze.nodeAt(5999).color, searched.nodeAt(5999).color);
+    t.checkExpect(maze.visitedNodes.size() < searched.visitedNodes.size(), true);
+  }
+}
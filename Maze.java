@@ -1,7 +1,6 @@
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.Random;
@@ -9,15 +8,22 @@ import tester.*;
 import javalib.impworld.*;
 import java.awt.Color;
 import javalib.worldimages.*;
-import java.util.HashMap;
 
 /*
  * Documentation:
  * Arrow keys control manual movement and where you move in the maze
  * D displays depth-first search
  * B displays breadth-first search
+ * S displays Dijkstra's algorithm
+ * A displays A* search, guided by the Manhattan distance to the end
+ * M displays a breadth-first search from both ends that meets in the middle
+ * W displays the cheapest path by the weights of the passages, for braided mazes
+ * J displays the cheapest path found over the junctions, a whole corridor at a time
  * R resets the maze and displays a new one
  * T toggles the viewing of the visited paths in the maze
+ * + and - double and halve how many visited nodes each tick shows
+ * G toggles adapting the number of nodes each tick shows to keep the frame rate up
+ * F skips the rest of the animation and shows the path right away
  *
  * Extra credit:
  * Toggle
@@ -35,6 +41,9 @@ class Node {
 
   int size = 10; // represents the size of the square 
 
+  // told about every change of color so only changed nodes are redrawn, or null
+  DirtyCells dirty = null;
+
   // constructor for Node
   Node(int pos, Node top, Node left, Node right, Node bottom, Color color) {
     this.pos = pos;
@@ -76,10 +85,33 @@ class Node {
   }
 
   // EFFECT: changes the color of the given cell to the given color
+  // and tells the dirty cells if the color is a different one
   void changeColor(Color c) {
+    if (this.dirty != null && !c.equals(this.color)) {
+      this.dirty.mark(this.pos);
+    }
     this.color = c;
   }
 
+  // returns which of the four walls of the node are standing, one bit each for the left,
+  // right, top and bottom walls, so that nodes that look the same have the same mask
+  int wallMask() {
+    int mask = 0;
+    if (this.left == null) {
+      mask |= 1;
+    }
+    if (this.right == null) {
+      mask |= 2;
+    }
+    if (this.top == null) {
+      mask |= 4;
+    }
+    if (this.bottom == null) {
+      mask |= 8;
+    }
+    return mask;
+  }
+
   // draws a node using its neighbors to tell where walls should be 
   WorldImage drawNode() {
     WorldImage drawnNode = 
@@ -144,8 +176,10 @@ interface ICollection<T> {
   // Is this collection empty?
   boolean isEmpty();
   
+  // returns whether this is the shortest way to the item the collection has been given, so a
+  // search knows whether to remember where the item was reached from
   // EFFECT: adds the item to the collection
-  void add(T item);
+  boolean add(T item);
   
   // Returns the first item of the collection
   // EFFECT: removes that first item
@@ -171,9 +205,11 @@ class Stack<T> implements ICollection<T> {
     return this.contents.removeFirst();
   }
   
+  // returns true, a stack can not tell one way to an item from another
   // EFFECT: adds the item to the front of the collection
-  public void add(T item) {
+  public boolean add(T item) {
     this.contents.addFirst(item);
+    return true;
   }
 }
 
@@ -196,9 +232,72 @@ class Queue<T> implements ICollection<T> {
     return this.contents.removeFirst();
   }
   
+  // returns true, a queue can not tell one way to an item from another
   // EFFECT: adds the item to the end of the collection
-  public void add(T item) {
+  public boolean add(T item) {
     this.contents.addLast(item); 
+    return true;
+  }
+}
+
+// represents a worklist where the node with the lowest cost so far plus estimated cost to the
+// goal comes out first, every node added is one move further than the node last removed
+class PriorityWorklist implements ICollection<Node> {
+  HeapWorklist positions; // orders the positions of the nodes
+  Maze maze; // the maze the nodes come from
+
+  // constructor for PriorityWorklist towards the end of the given maze
+  PriorityWorklist(Maze maze, IHeuristic heuristic) {
+    this.maze = maze;
+    this.positions = new HeapWorklist(maze.length * maze.height, maze.length, 
+        maze.engine.goals, heuristic);
+  }
+
+  // Is this collection empty?
+  public boolean isEmpty() {
+    return this.positions.isEmpty();
+  }
+
+  // Returns the node with the lowest priority
+  // EFFECT: removes that node
+  public Node remove() {
+    return this.maze.nodeAt(this.positions.remove());
+  }
+
+  // returns whether the node is fewer moves away this way than any way it was added before
+  // EFFECT: adds the node one move further than the node last removed, unless it was already
+  // added at least as close
+  public boolean add(Node item) {
+    return this.positions.add(item.pos);
+  }
+}
+
+// lets the engine's search take its positions from a collection of the nodes of a maze
+class CollectionWorklist implements IWorklist {
+  ICollection<Node> nodes;
+  Maze maze; // the maze the nodes come from
+
+  // constructor for CollectionWorklist
+  CollectionWorklist(ICollection<Node> nodes, Maze maze) {
+    this.nodes = nodes;
+    this.maze = maze;
+  }
+
+  // Is this worklist empty?
+  public boolean isEmpty() {
+    return this.nodes.isEmpty();
+  }
+
+  // returns whether the collection has no shorter way to the node at the position
+  // EFFECT: adds the node at the position to the collection
+  public boolean add(int pos) {
+    return this.nodes.add(this.maze.nodeAt(pos));
+  }
+
+  // Returns the position of the next node of the collection
+  // EFFECT: removes that node
+  public int remove() {
+    return this.nodes.remove().pos;
   }
 }
 
@@ -210,13 +309,13 @@ class Maze extends World {
   // holds the status of if the maze is finished or not
   boolean finished = false;
 
-  //list that will hold the initial edges of the Maze, creating a grid
-  ArrayList<Edge> edges = new ArrayList<Edge>(); 
+  // generates and solves the maze, this world only shows what it does
+  MazeEngine engine = new MazeEngine();
 
   // 2 dimensional list that will hold the Nodes that will be used to make the maze
   ArrayList<ArrayList<Node>> board = new ArrayList<ArrayList<Node>>();
 
-  // will be used to hold the edges that are given by the Kruskal's algorithm portion of code
+  // will be used to hold the edges that are given by the Kruskal's algorithm of the engine
   ArrayList<Edge> edgesInTheMaze = new ArrayList<Edge>();
 
   // instantiates a new random
@@ -231,8 +330,9 @@ class Maze extends World {
   // holds nodes to be able to create an animation effect
   ArrayList<Node> animatedNodes = new ArrayList<Node>();
 
-  // will be used for the search algorithms 
-  HashMap<Node, Node> cameFromNode = new HashMap<Node, Node>(); 
+  // will be used for the search algorithms, holds the position of the node each node was
+  // reached from, or -1 if it has not been reached yet
+  int[] cameFromNode;
 
   // holds the status of the maze's toggle mode
   boolean toggle = false;
@@ -246,6 +346,53 @@ class Maze extends World {
   // keeps track of if the maze has been solved or not
   boolean solved = false;
 
+  // how many nodes the last search expanded
+  int expandedNodes = 0;
+
+  // the images of the nodes drawn so far, shared by every node that looks the same
+  TileCache tiles = new TileCache();
+
+  // boards with more nodes than this are drawn onto one raster that only redraws the nodes
+  // whose color changed, smaller boards are drawn node by node
+  static final int RASTER_NODES = 2000;
+
+  // the nodes whose color changed since the raster was last brought up to date
+  DirtyCells dirty;
+
+  // the picture of the whole board for big boards, made on the first frame that needs it
+  MazeRaster raster;
+
+  // how many visited nodes each tick shows
+  int stepsPerTick = 1;
+
+  // whether stepsPerTick changes on its own to keep each tick and frame within TICK_BUDGET
+  boolean adaptiveSpeed = false;
+
+  // the nanoseconds a tick and the frame drawn after it should take together
+  static final long TICK_BUDGET = 15000000;
+
+  // the nanoseconds the last call to makeScene took
+  long lastSceneTime = 0;
+
+  // the CellState flags of each node, which the color of each node is looked up from
+  byte[] cells;
+
+  // the positions of the visited nodes in the order they were first visited, the first
+  // visitedCount of them are in use
+  int[] visitedOrder;
+
+  // how many nodes have been visited, how many are on the path, and how many are both, kept
+  // up to date as nodes are shown so the wrong moves never need a look at the whole board
+  int visitedCount = 0;
+  int pathCount = 0;
+  int visitedOnPath = 0;
+
+  // whether each position is one of the goals of the engine, so a move checks it in one step
+  boolean[] isGoal;
+
+  // the goal the search or the player reached, which the direct path is drawn back from, or -1
+  int reachedGoal = -1;
+
   // constructor for Maze
   Maze(int length, int height) {
     this.length = length;
@@ -261,46 +408,89 @@ class Maze extends World {
     this.createMaze();
   }
 
-  // EFFECT: used to set up the board, edges, and edgesInTheMaze lists to create the Maze
+  // constructor for a braided Maze, which opens the given share of the edges Kruskal's
+  // algorithm left out again so that the maze has loops, each passage costing its weight
+  Maze(int length, int height, Random rand, double braid) {
+    this.length = length;
+    this.height = height;
+    this.rand = rand;
+    this.engine.braid = braid;
+    this.createMaze();
+  }
+
+  // constructor for the Maze that reads its passages from an already generated WallGrid
+  Maze(WallGrid grid) {
+    this.length = grid.length;
+    this.height = grid.height;
+    this.engine = new MazeEngine(grid);
+    this.loadGrid();
+  }
+
+  // EFFECT: used to have the engine generate a new maze and set up the board and
+  // edgesInTheMaze lists to show it
   void createMaze() {
-    // sets up the nodes of the board, with each neighbor being null to start
-    ArrayList<Node> temp = new ArrayList<Node>();
-    for (int y = 0; y < this.height; y++) {
-      for (int x = 0; x < this.length; x++) {
-        temp.add(new Node(y * this.length + x));
-      }
-      this.board.add(temp);
-      temp = new ArrayList<Node>();
+    KeptEdges kept = new KeptEdges();
+    this.engine.generate(this.length, this.height, this.rand, kept);
+    this.createBoard();
+
+    // the edges Kruskal's algorithm kept, in the order it kept them and with their weights
+    for (int i = 0; i < kept.count; i++) {
+      this.edgesInTheMaze.add(new Edge(kept.weights[i], this.nodeAt(kept.from[i]),
+          this.nodeAt(kept.to[i])));
     }
+    this.linkNodes();
+  }
 
-    // *NOTE* when referring to the edges here, we think about the edges as the walls that separate
-    // the nodes, creating the 'grid' that we will use to create the actual maze later on
-    // sets the initial horizontal edges of the Maze
-    for (int y = 0; y < this.height; y++) {
-      for (int x = 1; x <= this.length - 1; x++) {
-        edges.add(new Edge(rand.nextInt(1000), 
-            this.board.get(y).get(x - 1), this.board.get(y).get(x)));
+  // EFFECT: sets up the board and edgesInTheMaze from the passages of the engine's maze, for
+  // a maze that was generated elsewhere so the order and weights of its edges are not known
+  void loadGrid() {
+    WallGrid grid = this.engine.grid;
+    this.createBoard();
+
+    // every open passage of the grid becomes an edge of the maze, weighing what the passage
+    // costs
+    for (int pos = 0; pos < this.length * this.height; pos++) {
+      if (grid.right(pos) != -1) {
+        this.edgesInTheMaze.add(new Edge(grid.weight(pos, pos + 1), this.nodeAt(pos),
+            this.nodeAt(pos + 1)));
+      }
+      if (grid.bottom(pos) != -1) {
+        this.edgesInTheMaze.add(new Edge(grid.weight(pos, pos + this.length),
+            this.nodeAt(pos), this.nodeAt(pos + this.length)));
       }
     }
+    this.linkNodes();
+  }
+
+  // EFFECT: sets up the nodes of the board, with each neighbor being null to start, and the
+  // cameFromNode array with no node reached yet
+  void createBoard() {
+    this.cameFromNode = new int[this.length * this.height];
+    Arrays.fill(this.cameFromNode, -1);
+    this.dirty = new DirtyCells(this.length * this.height);
+    this.raster = null;
+    this.cells = new byte[this.length * this.height];
+    this.visitedOrder = new int[this.length * this.height];
+    this.visitedCount = 0;
+    this.pathCount = 0;
+    this.visitedOnPath = 0;
+    this.reachedGoal = -1;
 
-    // sets the initial vertical edges of the Maze
-    for (int y = 1; y < this.height; y++) {
+    ArrayList<Node> temp = new ArrayList<Node>();
+    for (int y = 0; y < this.height; y++) {
       for (int x = 0; x < this.length; x++) {
-        edges.add(new Edge(rand.nextInt(1000), 
-            this.board.get(y - 1).get(x), this.board.get(y).get(x)));
+        Node node = new Node(y * this.length + x);
+        node.dirty = this.dirty;
+        temp.add(node);
       }
+      this.board.add(temp);
+      temp = new ArrayList<Node>();
     }
+  }
 
-    //sorts the list of edges to be from least to greatest in weight
-    Collections.sort(this.edges, new EdgeComparator());
-
-    // set the edgesInTheMaze list to be equal to the output of the edgesInMaze method, which 
-    // uses Kruskal's algorithm to produce the edgesInTheMaze
-    this.edgesInTheMaze = this.edgesInMaze();
-
-
-    // setting neighbors: go through the edgesInTheMaze now and use those edges to set the 
-    // neighbors of the appropriate cells, preparing them for drawing
+  // EFFECT: go through the edgesInTheMaze and use those edges to set the neighbors of the
+  // appropriate cells, preparing them for drawing and for the solution modes
+  void linkNodes() {
     for (int i = 0; i < this.edgesInTheMaze.size(); i++) {
       Node temp1 = this.edgesInTheMaze.get(i).node1;
       Node temp2 = this.edgesInTheMaze.get(i).node2;
@@ -332,178 +522,253 @@ class Maze extends World {
 
     // setting up the list for the DFS BFS and manual entry solution modes
 
-    this.currentNode = this.board.get(0).get(0);
-  }
-
-  // method that creates the list of edges in the maze which is used in createMaze,
-  // the method uses Kruskal's algorithm to create this list
-  ArrayList<Edge> edgesInMaze() {
-    // KRUSKAL'S ALGO , PSEDUO CODE 
-    // -------------------------------------
-    // initialize every node's representative to itself
-    // While(there's more than one tree)
-    //   Pick the next cheapest edge of the graph: suppose it connects X and Y.
-    //   If find(representatives, X) equals find(representatives, Y):
-    //     discard this edge // they're already connected
-    //   Else:
-    //     Record this edge in edgesInTree
-    //     union(representatives,
-    //     find(representatives, X),
-    //     find(representatives, Y))
-    // Return the edgesInTree
-
-    HashMap<Integer, Integer> representatives = new HashMap<Integer, Integer>();
-    ArrayList<Edge> edgesInTree = new ArrayList<Edge>();
-
-    // initialize all of the positions in the board to have their values be themselves
-    for (int i = 0; i < this.length * this.height; i++) {
-      representatives.put(i, i);
+    this.currentNode = this.nodeAt(this.engine.start);
+    this.findGoals();
+  }
+
+  // EFFECT: notes which positions are goals of the engine
+  void findGoals() {
+    this.isGoal = new boolean[this.length * this.height];
+    for (int i = 0; i < this.engine.goals.length; i++) {
+      this.isGoal[this.engine.goals[i]] = true;
     }
+  }
 
-    // goes through the edges list to create the edgesInTree list
-    while (edgesInTree.size() < this.length * this.height - 1) {
-      Edge temp = this.edges.remove(0);
-      int highestRep1 = find(representatives, representatives.get(temp.node1.pos));
-      int highestRep2 = find(representatives, representatives.get(temp.node2.pos));
-      if (highestRep1 != highestRep2) {
-        edgesInTree.add(temp);
-        representatives.put(highestRep1, highestRep2);
-      }
-      // else, we're discarding the edge
+  // EFFECT: flags the start and the goals of the engine
+  void markEndpoints() {
+    this.flag(this.nodeAt(this.engine.start), CellState.START);
+    for (int i = 0; i < this.engine.goals.length; i++) {
+      this.flag(this.nodeAt(this.engine.goals[i]), CellState.END);
     }
-    return edgesInTree;
   }
 
-  // Method to get the highest representative of a key
-  int find(HashMap<Integer, Integer> rep, int search) {
-    int upperRepresentative = rep.get(search);
-    if (upperRepresentative != search) {
-      return find(rep, upperRepresentative);
+  // EFFECT: moves the start and the goals of the maze to the given positions and puts the
+  // player on the new start, meant for before a solve, the nodes already shown stay as they are
+  void setEndpoints(int start, int... goals) {
+    this.unflag(this.nodeAt(this.engine.start), CellState.START);
+    for (int i = 0; i < this.engine.goals.length; i++) {
+      this.unflag(this.nodeAt(this.engine.goals[i]), CellState.END);
     }
-    return upperRepresentative;
+    this.engine.setEndpoints(start, goals);
+    this.unflag(this.currentNode, CellState.PLAYER);
+    this.currentNode = this.nodeAt(start);
+    this.findGoals();
   }
 
-  // EFFECT: runs the search algorithm
-  void searchHelp(Node from, Node to, ICollection<Node> workList) {
-    workList.add(from);
-    Deque<Node> alreadySeen = new ArrayDeque<Node>();
+  // returns the node at the given position of the board
+  Node nodeAt(int pos) {
+    return this.board.get(pos / this.length).get(pos % this.length);
+  }
 
-    while (!workList.isEmpty()) {
-      Node next = workList.remove();
-      this.visitedNodes.add(next);
+  // returns the passages of this maze packed into a WallGrid
+  WallGrid toWallGrid() {
+    return this.engine.grid;
+  }
 
-      if (next.equals(to)) {
-        this.finished = true;
-        break;
-      }
+  // returns the path index of this maze, hung from the start of the maze
+  PathIndex pathIndex() {
+    return this.engine.pathIndex();
+  }
 
-      else if (alreadySeen.contains(next)) {
-        // don't care, discard
+  // returns how many nanoseconds the last generation of the maze took per cell
+  double generationTimePerCell() {
+    return this.engine.generationTimePerCell();
+  }
+
+  // EFFECT: runs the search algorithm, taking the next node to expand from the given worklist
+  void searchHelp(Node from, Node to, ICollection<Node> workList) {
+    this.showSolution(this.engine.search("custom", from.pos, to.pos, 
+        new CollectionWorklist(workList, this)));
+  }
+
+  // EFFECT: runs the given algorithm of the engine from the start to the end of the maze
+  void solve(String algorithm) {
+    this.showSolution(this.engine.solve(algorithm));
+  }
+
+  // EFFECT: queues the nodes of the solution up to be animated, and records where each node
+  // was reached from so that the direct path can be drawn
+  void showSolution(MazeSolution solution) {
+    for (int i = 0; i < solution.visitedOrder.length; i++) {
+      this.visitedNodes.add(this.nodeAt(solution.visitedOrder[i]));
+    }
+    if (solution.cameFrom == null) {
+      // a replayed solution only knows where the positions on its path were reached from
+      int[] path = solution.path();
+      for (int i = 1; i < path.length; i++) {
+        this.cameFromNode[path[i]] = path[i - 1];
       }
-      else {
-        if (next.top != null && !alreadySeen.contains(next.top)) {
-          workList.add(next.top);
-          this.cameFromNode.put(next.top, next);
-        }
-        if (next.bottom != null && !alreadySeen.contains(next.bottom)) {
-          workList.add(next.bottom);
-          this.cameFromNode.put(next.bottom, next);
-        }
-        if (next.left != null && !alreadySeen.contains(next.left)) {
-          workList.add(next.left);
-          this.cameFromNode.put(next.left, next);
-        }
-        if (next.right != null && !alreadySeen.contains(next.right)) {
-          workList.add(next.right);
-          this.cameFromNode.put(next.right, next);
+    }
+    else {
+      for (int pos = 0; pos < solution.cameFrom.length; pos++) {
+        if (solution.cameFrom[pos] != -1) {
+          this.cameFromNode[pos] = solution.cameFrom[pos];
         }
-        alreadySeen.add(next);
       }
-    } 
+    }
+    this.expandedNodes = solution.expanded;
+    if (solution.found) {
+      this.finished = true;
+      this.reachedGoal = solution.to;
+    }
   }
 
-  // EFFECT: creates a direct path between the beginning and the end of the maze
-  // by mutating cells' colors
+  // EFFECT: creates a direct path between the start and the goal that was reached
+  // by flagging the nodes on it
   void directPath() {
-    Node next = this.board.get(this.height - 1).get(this.length - 1);
-    while (!(next.equals(this.board.get(0).get(0)))) {
-      next.changeColor(Color.YELLOW);
-      next = cameFromNode.get(next);
+    int next = this.reachedGoal;
+    while (next != this.engine.start) {
+      this.markPath(this.nodeAt(next));
+      next = this.cameFromNode[next];
     }
     this.finished = false;
     this.solved = true;
   }
 
+  // EFFECT: turns the given flag of the node on and recolors the node to match its flags
+  void flag(Node node, byte flag) {
+    this.cells[node.pos] |= flag;
+    node.changeColor(CellState.color(this.cells[node.pos]));
+  }
+
+  // EFFECT: turns the given flag of the node off and recolors the node to match its flags
+  void unflag(Node node, byte flag) {
+    this.cells[node.pos] &= ~flag;
+    node.changeColor(CellState.color(this.cells[node.pos]));
+  }
+
+  // EFFECT: flags the given node as visited, counting it the first time
+  void markVisited(Node node) {
+    if ((this.cells[node.pos] & CellState.VISITED) == 0) {
+      this.visitedOrder[this.visitedCount] = node.pos;
+      this.visitedCount++;
+      if ((this.cells[node.pos] & CellState.ON_PATH) != 0) {
+        this.visitedOnPath++;
+      }
+    }
+    this.flag(node, CellState.VISITED);
+  }
+
+  // EFFECT: flags the given node as part of the direct path, counting it the first time
+  void markPath(Node node) {
+    if ((this.cells[node.pos] & CellState.ON_PATH) == 0) {
+      this.pathCount++;
+      if ((this.cells[node.pos] & CellState.VISITED) != 0) {
+        this.visitedOnPath++;
+      }
+    }
+    this.flag(node, CellState.ON_PATH);
+  }
+
+  // returns the number of visited nodes that are not on the direct path, leaving out the
+  // start, which is where every path begins and so is never a wrong move
+  int wrongMoveCount() {
+    int wrong = this.visitedCount - this.visitedOnPath;
+    if ((this.cells[this.engine.start] & CellState.VISITED) != 0) {
+      wrong--;
+    }
+    return wrong;
+  }
+
+  // returns the numbers of the solve being shown
+  SolveStatistics solveStatistics() {
+    return new SolveStatistics(this);
+  }
+
   // EFFECT: for allowing the user to use their mouse keys to go through the maze.
   // changes the color of the cells as the current node moves through
   void manualEntry(String move) {
     if (move.equals("up") && this.currentNode.top != null) {
-      this.currentNode.changeColor(Color.BLUE);
-      if (!this.cameFromNode.containsKey(this.currentNode.top)) {
-        this.cameFromNode.put(this.currentNode.top, this.currentNode);
+      this.unflag(this.currentNode, CellState.PLAYER);
+      this.markVisited(this.currentNode);
+      if (this.cameFromNode[this.currentNode.top.pos] == -1) {
+        this.cameFromNode[this.currentNode.top.pos] = this.currentNode.pos;
       }
       this.currentNode = this.currentNode.top;
-      this.currentNode.changeColor(Color.ORANGE);
+      this.flag(this.currentNode, CellState.PLAYER);
     }
 
     if (move.equals("down") && this.currentNode.bottom != null) {
-      this.currentNode.changeColor(Color.BLUE);
-      if (!this.cameFromNode.containsKey(this.currentNode.bottom)) {
-        this.cameFromNode.put(this.currentNode.bottom, this.currentNode);
+      this.unflag(this.currentNode, CellState.PLAYER);
+      this.markVisited(this.currentNode);
+      if (this.cameFromNode[this.currentNode.bottom.pos] == -1) {
+        this.cameFromNode[this.currentNode.bottom.pos] = this.currentNode.pos;
       }
       this.currentNode = this.currentNode.bottom;
-      this.currentNode.changeColor(Color.ORANGE);
+      this.flag(this.currentNode, CellState.PLAYER);
     }
 
     if (move.equals("left") && this.currentNode.left != null) {
-      this.currentNode.changeColor(Color.BLUE);
-      if (!this.cameFromNode.containsKey(this.currentNode.left)) {
-        this.cameFromNode.put(this.currentNode.left, this.currentNode);
+      this.unflag(this.currentNode, CellState.PLAYER);
+      this.markVisited(this.currentNode);
+      if (this.cameFromNode[this.currentNode.left.pos] == -1) {
+        this.cameFromNode[this.currentNode.left.pos] = this.currentNode.pos;
       }
       this.currentNode = this.currentNode.left;
-      this.currentNode.changeColor(Color.ORANGE);
+      this.flag(this.currentNode, CellState.PLAYER);
     }
 
     if (move.equals("right") && this.currentNode.right != null) {
-      this.currentNode.changeColor(Color.BLUE);
-      if (!this.cameFromNode.containsKey(this.currentNode.right)) {
-        this.cameFromNode.put(this.currentNode.right, this.currentNode);
+      this.unflag(this.currentNode, CellState.PLAYER);
+      this.markVisited(this.currentNode);
+      if (this.cameFromNode[this.currentNode.right.pos] == -1) {
+        this.cameFromNode[this.currentNode.right.pos] = this.currentNode.pos;
       }
       this.currentNode = this.currentNode.right;
-      this.currentNode.changeColor(Color.ORANGE);
+      this.flag(this.currentNode, CellState.PLAYER);
     }
 
-    if (this.currentNode.equals(this.board.get(this.height - 1).get(this.length - 1))) {
+    if (this.isGoal[this.currentNode.pos]) {
       this.finished = true;
+      this.reachedGoal = this.currentNode.pos;
     }
   }
 
   // EFFECT: resets the maze and generates a new one 
   void newMaze() {
     this.board = new ArrayList<ArrayList<Node>>();
-    this.edges = new ArrayList<Edge>();
     this.edgesInTheMaze = new ArrayList<Edge>();
     this.currentNode = null;
     this.animatedNodes = new ArrayList<Node>();
     this.visitedNodes = new ArrayList<Node>();
-    this.cameFromNode = new HashMap<Node, Node>();
     this.finished = false;
     this.toggle = false;
     this.toggleList = new ArrayList<Node>();
     this.solved = false;
     this.wrongMoves = 0;
+    this.expandedNodes = 0;
+    this.stepsPerTick = 1;
     this.createMaze();  
   }
 
+  // returns a worklist ordered by the given heuristic towards the end of the maze, an
+  // ZeroHeuristic gives Dijkstra's algorithm and any other heuristic gives A*
+  PriorityWorklist priorityWorklist(IHeuristic heuristic) {
+    return new PriorityWorklist(this, heuristic);
+  }
+
   // EFFECT: override for big bang in order to allow users to do certain actions
   public void onKeyEvent(String s) {
     if (s.equals("b")) {
-      this.searchHelp(this.board.get(0).get(0), 
-          this.board.get(this.height - 1).get(this.length - 1), new Queue<Node>());
+      this.solve("bfs");
     }
     if (s.equals("d")) {
-      this.searchHelp(this.board.get(0).get(0), 
-          this.board.get(this.height - 1).get(this.length - 1), new Stack<Node>());
+      this.solve("dfs");
+    }
+    if (s.equals("s")) {
+      this.solve("dijkstra");
+    }
+    if (s.equals("m")) {
+      this.solve("bidirectional");
+    }
+    if (s.equals("a")) {
+      this.solve("astar");
+    }
+    if (s.equals("w")) {
+      this.solve("weighted");
+    }
+    if (s.equals("j")) {
+      this.solve("junction");
     }
     if (s.equals("up")) {
       this.manualEntry(s);
@@ -520,22 +785,34 @@ class Maze extends World {
     if (s.equals("r")) {
       this.newMaze();
     }
+    if (s.equals("+") || s.equals("=")) {
+      this.stepsPerTick = Math.min(this.stepsPerTick * 2, this.length * this.height);
+    }
+    if (s.equals("-")) {
+      this.stepsPerTick = Math.max(this.stepsPerTick / 2, 1);
+    }
+    if (s.equals("g")) {
+      this.adaptiveSpeed = !this.adaptiveSpeed;
+    }
+    if (s.equals("f")) {
+      this.skipToPath();
+    }
     // toggles the view of the visited paths
     if (s.equals("t")) {
       this.toggle = !this.toggle;
       if (this.toggle) {
-        for (int y = 0; y < this.height; y++) {
-          for (int x = 0; x < this.length; x++) {
-            if (this.board.get(y).get(x).color.equals(Color.BLUE)) {
-              this.toggleList.add(this.board.get(y).get(x));
-              this.board.get(y).get(x).changeColor(Color.WHITE);
-            }
+        // only visited nodes can be hidden, so only they are looked at
+        for (int i = 0; i < this.visitedCount; i++) {
+          Node visited = this.nodeAt(this.visitedOrder[i]);
+          if (CellState.showsVisited(this.cells[visited.pos])) {
+            this.flag(visited, CellState.HIDDEN);
+            this.toggleList.add(visited);
           }
         }
       }
       else {
         for (int i = 0; i < this.toggleList.size(); i++) {
-          this.toggleList.get(i).changeColor(Color.BLUE);
+          this.unflag(this.toggleList.get(i), CellState.HIDDEN);
         }
         this.toggleList = new ArrayList<Node>();
       }
@@ -545,24 +822,58 @@ class Maze extends World {
   // EFFECT: draws the maze and checks to see if it has been completed
   public void onTick() {
     if (this.visitedNodes.size() > this.animatedNodes.size()) {
-      Node temp = this.visitedNodes.get(this.animatedNodes.size());
-      temp.changeColor(Color.BLUE);
-      this.animatedNodes.add(temp);
+      long startTime = System.nanoTime();
+      this.reveal(this.stepsPerTick);
+      if (this.adaptiveSpeed) {
+        this.adaptSpeed(System.nanoTime() - startTime + this.lastSceneTime);
+      }
     } 
     else if (this.finished) {
-      this.directPath();
-      for (int y = 0; y < this.height; y++) {
-        for (int x = 0; x < this.length; x++) {
-          if (this.board.get(y).get(x).color.equals(Color.BLUE)) {
-            this.wrongMoves++;
-          }
-        }
-      }
+      this.finishSolve();
+    }
+  }
+
+  // EFFECT: colors up to the given number of the visited nodes that have not been shown yet
+  void reveal(int steps) {
+    int last = Math.min(this.visitedNodes.size(), this.animatedNodes.size() + steps);
+    for (int i = this.animatedNodes.size(); i < last; i++) {
+      Node temp = this.visitedNodes.get(i);
+      this.markVisited(temp);
+      this.animatedNodes.add(temp);
+    }
+  }
+
+  // EFFECT: doubles the steps per tick while a tick and its frame take less than half of the
+  // budget and halves them once they take more than all of it
+  void adaptSpeed(long tickTime) {
+    if (tickTime < Maze.TICK_BUDGET / 2) {
+      this.stepsPerTick = Math.min(this.stepsPerTick * 2, this.length * this.height);
+    }
+    else if (tickTime > Maze.TICK_BUDGET) {
+      this.stepsPerTick = Math.max(this.stepsPerTick / 2, 1);
+    }
+  }
+
+  // EFFECT: draws the direct path and counts the wrong moves once the search is done, which
+  // only takes as long as the path since the counts are kept as the nodes are shown
+  void finishSolve() {
+    this.directPath();
+    this.wrongMoves = this.wrongMoveCount();
+  }
+
+  // EFFECT: shows every visited node that is left at once, then the direct path if the
+  // search reached the end
+  void skipToPath() {
+    this.reveal(this.visitedNodes.size() - this.animatedNodes.size());
+    if (this.finished) {
+      this.finishSolve();
     }
   }
 
   // method for big bang to draw 
   public WorldScene makeScene() {
+    long startTime = System.nanoTime();
+    long startBytes = this.engine.metrics.allocatedBytes();
     WorldScene maze = getEmptyScene();
     int sizeRect = 20;
     // has the starting x value as 25 and sets it to be more dynamic if the maze is small enough
@@ -574,20 +885,32 @@ class Maze extends World {
     }
     int dynamicPlaceY = 25;
 
+    // places the green square of the start and the purple squares of the goals
+    this.markEndpoints();
 
-    // places the begin here green square
-    this.board.get(0).get(0).changeColor(Color.GREEN);
-
-    // places the end here purple square
-    this.board.get(this.height - 1).get(this.length - 1).changeColor(Color.MAGENTA);
-
-
-    // goes through the entire board, drawing each node as it goes
-    for (int y = 0; y < this.height; y++) {
-      for (int x = 0; x < this.length; x++) {
-        Node temp = this.board.get(y).get(x);
-        maze.placeImageXY(temp.drawNode(), x * temp.size + dynamicPlaceX, 
-            y * temp.size + dynamicPlaceY);
+    if (this.length * this.height > Maze.RASTER_NODES) {
+      // only the nodes that changed color since the last frame are redrawn
+      int size = this.nodeAt(0).size;
+      if (this.raster == null) {
+        this.raster = new MazeRaster(this.length, this.height, size);
+        this.raster.paintAll(this.board);
+        this.dirty.clear();
+      }
+      else {
+        this.raster.repaint(this.board, this.dirty);
+      }
+      // lines the raster up with where the nodes would have been placed one by one
+      maze.placeImageXY(this.raster.image, dynamicPlaceX - size / 2 + this.length * size / 2,
+          dynamicPlaceY - size + this.height * size / 2);
+    }
+    else {
+      // goes through the entire board, drawing each node as it goes
+      for (int y = 0; y < this.height; y++) {
+        for (int x = 0; x < this.length; x++) {
+          Node temp = this.board.get(y).get(x);
+          maze.placeImageXY(this.tiles.draw(temp), x * temp.size + dynamicPlaceX, 
+              y * temp.size + dynamicPlaceY);
+        }
       }
     }
 
@@ -595,12 +918,43 @@ class Maze extends World {
       maze.placeImageXY(new TextImage("The maze has been solved. There were  " 
           + this.wrongMoves + " wrong moves.", 15, FontStyle.BOLD, Color.RED),
           this.length * sizeRect / 2 + dynamicPlaceX, this.height * sizeRect / 2 + dynamicPlaceY);
+      if (this.expandedNodes > 0) {
+        maze.placeImageXY(new TextImage(this.expandedNodes + " nodes were expanded.", 
+            15, FontStyle.BOLD, Color.RED), this.length * sizeRect / 2 + dynamicPlaceX, 
+            this.height * sizeRect / 2 + dynamicPlaceY + 20);
+      }
     }
 
+    this.lastSceneTime = System.nanoTime() - startTime;
+    if (this.engine.metrics.enabled) {
+      this.engine.metrics.record(MazeMetrics.SCENE_TIME, this.lastSceneTime);
+      this.engine.metrics.record(MazeMetrics.SCENE_ALLOCATED,
+          this.engine.metrics.allocatedBytes() - startBytes);
+    }
     return maze;
   }
 }
 
+// represents the numbers of the solve a Maze is showing, read off of the Maze when made
+class SolveStatistics {
+  int queued; // visited nodes the search handed over to be shown
+  int shown; // visited nodes shown so far
+  int visited; // different nodes shown as visited, by a search or by moving
+  int pathLength; // nodes drawn as part of the direct path, the start left out
+  int wrongMoves; // visited nodes that are not on the direct path
+  boolean solved;
+
+  // constructor for SolveStatistics
+  SolveStatistics(Maze maze) {
+    this.queued = maze.visitedNodes.size();
+    this.shown = maze.animatedNodes.size();
+    this.visited = maze.visitedCount;
+    this.pathLength = maze.pathCount;
+    this.wrongMoves = maze.wrongMoveCount();
+    this.solved = maze.solved;
+  }
+}
+
 // class for testing 
 class ExampleMaze extends World {
   Maze maze0;
@@ -625,9 +979,6 @@ class ExampleMaze extends World {
   Node maze3node2;
   Node maze3node3;
 
-  HashMap<Integer, Integer> hash1;
-  HashMap<Integer, Integer> hash2;
-
   Stack<Node> stack1;
   Queue<Node> queue1;
 
@@ -637,12 +988,6 @@ class ExampleMaze extends World {
       new Edge(474, this.maze3node0, this.maze3node2), 
       new Edge(424, this.maze3node1, this.maze3node3)));
 
-  // initializes the hashmaps for testing
-  void initDataFind() {
-    hash1 = new HashMap<Integer, Integer>();
-    hash2 = new HashMap<Integer, Integer>();
-  }
-
   // initializes the data for testing
   void initData() {
     this.maze0 = new Maze(1, 1, new Random(5));
@@ -939,6 +1284,25 @@ class ExampleMaze extends World {
     t.checkExpect(this.node3.drawNode(), this.node3Draw());
   }
 
+  void testWallMask(Tester t) {
+    this.initData();
+    t.checkExpect(this.node1.wallMask(), 15);
+    t.checkExpect(this.node4.wallMask(), 0);
+    t.checkExpect(this.maze4.nodeAt(0).wallMask(), 1 | 4 | 8);
+  }
+
+  void testDirtyNodes(Tester t) {
+    this.initData();
+    this.maze4.dirty.clear();
+    this.maze4.nodeAt(4).changeColor(Color.BLUE);
+    this.maze4.nodeAt(4).changeColor(Color.BLUE);
+    this.maze4.nodeAt(2).changeColor(Color.WHITE);
+    // changing a node to the color it already has does not make it dirty
+    t.checkExpect(this.maze4.dirty.count, 1);
+    t.checkExpect(this.maze4.dirty.cells[0], 4);
+    t.checkExpect(this.node1.dirty, null);
+  }
+
   void testEdgeComparatorCompare(Tester t) {
     this.initData();
     t.checkExpect(new EdgeComparator().compare(this.edge1, this.edge2), 100);
@@ -1013,6 +1377,103 @@ class ExampleMaze extends World {
     t.checkExpect(this.maze3.visitedNodes.size(), 3);
   }
 
+  void testSearchHelpOrder(Tester t) {
+    this.initData();
+    // the order the nodes are animated in is the same as when the visited nodes were kept in
+    // a deque, only found much faster
+    this.maze5.onKeyEvent("b");
+    t.checkExpect(this.maze5.visitedNodes.size(), 5455);
+    t.checkExpect(this.maze5.visitedNodes.get(2).pos, 101);
+    t.checkExpect(this.maze5.visitedNodes.get(4).pos, 100);
+    t.checkExpect(this.maze5.visitedNodes.get(9).pos, 202);
+    this.initData();
+    this.maze5.onKeyEvent("d");
+    t.checkExpect(this.maze5.visitedNodes.size(), 3155);
+    t.checkExpect(this.maze5.visitedNodes.get(5).pos, 103);
+    t.checkExpect(this.maze5.visitedNodes.get(9).pos, 204);
+  }
+
+  void testCameFromNode(Tester t) {
+    this.initData();
+    t.checkExpect(this.maze4.cameFromNode, new int[] {-1, -1, -1, -1, -1, -1, -1, -1, -1});
+    this.maze4.onKeyEvent("right");
+    t.checkExpect(this.maze4.cameFromNode[1], 0);
+    this.maze4.onKeyEvent("left");
+    t.checkExpect(this.maze4.cameFromNode[0], 1);
+    t.checkExpect(this.maze4.cameFromNode[1], 0);
+  }
+
+  void testPriorityWorklist(Tester t) {
+    this.initData();
+    PriorityWorklist dijkstra = this.maze4.priorityWorklist(new ZeroHeuristic());
+    t.checkExpect(dijkstra.isEmpty(), true);
+    dijkstra.add(this.maze4.nodeAt(0));
+    t.checkExpect(dijkstra.isEmpty(), false);
+    t.checkExpect(dijkstra.remove(), this.maze4.nodeAt(0));
+    dijkstra.add(this.maze4.nodeAt(1));
+    t.checkExpect(dijkstra.remove(), this.maze4.nodeAt(1));
+    dijkstra.add(this.maze4.nodeAt(2));
+    dijkstra.add(this.maze4.nodeAt(4));
+    t.checkExpect(dijkstra.positions.cost[4], 2);
+    t.checkExpect(dijkstra.remove(), this.maze4.nodeAt(2));
+
+    // A* prefers the node that is closer to the end of the maze
+    PriorityWorklist aStar = this.maze4.priorityWorklist(new ManhattanHeuristic());
+    aStar.add(this.maze4.nodeAt(1));
+    aStar.add(this.maze4.nodeAt(3));
+    aStar.add(this.maze4.nodeAt(5));
+    t.checkExpect(aStar.remove(), this.maze4.nodeAt(5));
+    t.checkExpect(aStar.remove(), this.maze4.nodeAt(1));
+  }
+
+  void testDijkstraAndAStar(Tester t) {
+    this.initData();
+    this.maze5.onKeyEvent("b");
+    int breadthFirst = this.maze5.expandedNodes;
+    this.initData();
+    this.maze5.onKeyEvent("s");
+    int dijkstra = this.maze5.expandedNodes;
+    this.initData();
+    this.maze5.onKeyEvent("a");
+    int aStar = this.maze5.expandedNodes;
+    t.checkExpect(breadthFirst, 5454);
+    // with every move costing the same, Dijkstra's expands the same nodes as BFS
+    t.checkExpect(dijkstra, breadthFirst);
+    t.checkExpect(aStar < breadthFirst, true);
+    t.checkExpect(this.maze5.finished, true);
+
+    // both still find the one path through the maze
+    this.maze4.onKeyEvent("a");
+    this.maze4.directPath();
+    t.checkExpect(this.maze4.board.get(0).get(1).color, Color.YELLOW);
+    t.checkExpect(this.maze4.board.get(1).get(1).color, Color.YELLOW);
+    t.checkExpect(this.maze4.board.get(1).get(2).color, Color.YELLOW);
+  }
+
+  void testBidirectionalSearch(Tester t) {
+    this.initData();
+    this.maze5.onKeyEvent("b");
+    int oneWay = this.maze5.expandedNodes;
+    this.initData();
+    this.maze5.onKeyEvent("m");
+    t.checkExpect(this.maze5.finished, true);
+    t.checkExpect(this.maze5.expandedNodes < oneWay, true);
+    t.checkExpect(this.maze5.visitedNodes.size(), this.maze5.expandedNodes);
+
+    // the two halves are joined so the direct path is the same as the one way search
+    this.maze6.onKeyEvent("m");
+    this.maze6.directPath();
+    t.checkExpect(this.maze6.board.get(0).get(1).color, Color.YELLOW);
+    t.checkExpect(this.maze6.board.get(0).get(5).color, Color.YELLOW);
+    t.checkExpect(this.maze6.board.get(2).get(5).color, Color.YELLOW);
+    t.checkExpect(this.maze6.board.get(4).get(5).color, Color.YELLOW);
+    t.checkExpect(this.maze6.board.get(1).get(0).color, Color.WHITE);
+
+    this.maze0.onKeyEvent("m");
+    t.checkExpect(this.maze0.finished, true);
+    t.checkExpect(this.maze0.visitedNodes.size(), 1);
+  }
+
   void testDirectPath(Tester t) {
     this.initData();
     // checks to see the direct path is not there before it is instantiated
@@ -1158,6 +1619,68 @@ class ExampleMaze extends World {
     t.checkExpect(this.maze6.board.get(4).get(5).color, Color.YELLOW);
   }
 
+  void testStepsPerTick(Tester t) {
+    this.initData();
+    this.maze5.onKeyEvent("b");
+    this.maze5.onTick();
+    t.checkExpect(this.maze5.animatedNodes.size(), 1);
+    this.maze5.stepsPerTick = 100;
+    this.maze5.onTick();
+    t.checkExpect(this.maze5.animatedNodes.size(), 101);
+    t.checkExpect(this.maze5.visitedNodes.get(100).color, Color.BLUE);
+    t.checkExpect(this.maze5.visitedNodes.get(101).color, Color.WHITE);
+    this.maze5.onKeyEvent("-");
+    t.checkExpect(this.maze5.stepsPerTick, 50);
+    this.maze5.onKeyEvent("+");
+    this.maze5.onKeyEvent("=");
+    t.checkExpect(this.maze5.stepsPerTick, 200);
+
+    // the last tick only shows the nodes that are left
+    this.maze5.stepsPerTick = 6000;
+    this.maze5.onTick();
+    t.checkExpect(this.maze5.animatedNodes.size(), 5455);
+    t.checkExpect(this.maze5.solved, false);
+    this.maze5.onTick();
+    t.checkExpect(this.maze5.solved, true);
+  }
+
+  void testAdaptSpeed(Tester t) {
+    this.initData();
+    this.maze5.onKeyEvent("g");
+    t.checkExpect(this.maze5.adaptiveSpeed, true);
+    this.maze5.adaptSpeed(0);
+    this.maze5.adaptSpeed(0);
+    t.checkExpect(this.maze5.stepsPerTick, 4);
+    this.maze5.adaptSpeed(Maze.TICK_BUDGET * 3 / 4);
+    t.checkExpect(this.maze5.stepsPerTick, 4);
+    this.maze5.adaptSpeed(Maze.TICK_BUDGET * 2);
+    t.checkExpect(this.maze5.stepsPerTick, 2);
+    // a frame that was too slow to draw keeps the next tick from speeding up
+    this.maze5.onKeyEvent("b");
+    this.maze5.lastSceneTime = Maze.TICK_BUDGET * 2;
+    this.maze5.onTick();
+    t.checkExpect(this.maze5.animatedNodes.size(), 2);
+    t.checkExpect(this.maze5.stepsPerTick, 1);
+    this.maze5.stepsPerTick = 6000;
+    this.maze5.adaptSpeed(0);
+    t.checkExpect(this.maze5.stepsPerTick, 6000);
+  }
+
+  void testSkipToPath(Tester t) {
+    this.initData();
+    this.maze5.onKeyEvent("b");
+    this.maze5.onTick();
+    this.maze5.onKeyEvent("f");
+    t.checkExpect(this.maze5.animatedNodes.size(), 5455);
+    t.checkExpect(this.maze5.solved, true);
+    t.checkExpect(this.maze5.nodeAt(5999).color, Color.YELLOW);
+    t.checkExpect(this.maze5.nodeAt(1).color, Color.YELLOW);
+
+    // nothing is left to skip when no search is running
+    this.maze4.onKeyEvent("f");
+    t.checkExpect(this.maze4.solved, false);
+  }
+
   void testNumberOfWrongMoves(Tester t) {
     this.initData();
     this.maze1.onKeyEvent("right");
@@ -1187,6 +1710,143 @@ class ExampleMaze extends World {
     t.checkExpect(this.maze2.wrongMoves, 0);
   }
 
+  void testWrongMoveCount(Tester t) {
+    this.initData();
+    // the count is the same whether or not a frame was drawn before the last tick
+    this.maze1.onKeyEvent("right");
+    this.maze1.onKeyEvent("down");
+    this.maze1.onKeyEvent("down");
+    this.maze1.onKeyEvent("right");
+    this.maze1.onKeyEvent("down");
+    this.maze1.onKeyEvent("right");
+    this.maze1.onKeyEvent("left");
+    this.maze1.onKeyEvent("down");
+    this.maze1.onKeyEvent("right");
+    this.maze1.onKeyEvent("right");
+    t.checkExpect(this.maze1.visitedCount, 9);
+    this.maze1.onTick();
+    t.checkExpect(this.maze1.wrongMoves, 1);
+    t.checkExpect(this.maze1.pathCount, 8);
+    // another tick once it is solved does not count the wrong moves again
+    this.maze1.finished = true;
+    this.maze1.onTick();
+    t.checkExpect(this.maze1.wrongMoves, 1);
+
+    // a search counts every visited node that did not end up on the path
+    this.maze5.onKeyEvent("b");
+    this.maze5.onKeyEvent("f");
+    SolveStatistics stats = this.maze5.solveStatistics();
+    t.checkExpect(stats.queued, 5455);
+    t.checkExpect(stats.shown, 5455);
+    t.checkExpect(stats.visited, 5455);
+    t.checkExpect(stats.pathLength, this.maze5.pathIndex().distance(0, 5999));
+    t.checkExpect(stats.wrongMoves, 5455 - stats.pathLength - 1);
+    t.checkExpect(stats.solved, true);
+    t.checkExpect(this.maze5.wrongMoves, stats.wrongMoves);
+  }
+
+  void testCellFlags(Tester t) {
+    this.initData();
+    this.maze4.onKeyEvent("right");
+    t.checkExpect(this.maze4.cells[0], CellState.VISITED);
+    t.checkExpect(this.maze4.cells[1], CellState.PLAYER);
+    this.maze4.onKeyEvent("right");
+    t.checkExpect(this.maze4.cells[1], CellState.VISITED);
+    t.checkExpect(this.maze4.visitedOrder[1], 1);
+
+    // the toggle only flips the hidden flag of the visited nodes shown in blue
+    this.maze5.onKeyEvent("b");
+    this.maze5.onKeyEvent("f");
+    this.maze5.makeScene();
+    this.maze5.onKeyEvent("t");
+    t.checkExpect(this.maze5.toggleList.size(), this.maze5.wrongMoves);
+    Node hidden = this.maze5.toggleList.get(0);
+    t.checkExpect(this.maze5.cells[hidden.pos], (byte) (CellState.VISITED | CellState.HIDDEN));
+    t.checkExpect(hidden.color, Color.WHITE);
+    t.checkExpect(this.maze5.nodeAt(0).color, Color.GREEN);
+    t.checkExpect(this.maze5.nodeAt(1).color, Color.YELLOW);
+    this.maze5.onKeyEvent("t");
+    t.checkExpect(this.maze5.cells[hidden.pos], CellState.VISITED);
+    t.checkExpect(hidden.color, Color.BLUE);
+  }
+
+  void testEdgesInTheMaze(Tester t) {
+    // the edges the original Maze kept for this seed, as weight, node1 and node2, in the order
+    // Kruskal's algorithm kept them
+    int[][] kept = {{17, 2, 7}, {17, 3, 8}, {90, 18, 19}, {92, 1, 2}, {165, 5, 10},
+        {180, 10, 15}, {215, 1, 6}, {303, 13, 14}, {308, 4, 9}, {320, 13, 18}, {321, 11, 12},
+        {356, 7, 12}, {402, 9, 14}, {424, 3, 4}, {428, 17, 18}, {474, 2, 3}, {487, 0, 1},
+        {506, 5, 6}, {560, 16, 17}};
+    Maze small = new Maze(5, 4, new Random(5));
+    t.checkExpect(small.edgesInTheMaze.size(), kept.length);
+    boolean same = true;
+    for (int i = 0; i < kept.length; i++) {
+      Edge edge = small.edgesInTheMaze.get(i);
+      same = same && edge.weight == kept[i][0] && edge.node1.pos == kept[i][1]
+          && edge.node2.pos == kept[i][2];
+    }
+    t.checkExpect(same, true);
+    // the same goes for a big maze, checked against a hash of the original list
+    Maze big = new Maze(100, 60, new Random(5));
+    long hash = 0;
+    for (int i = 0; i < big.edgesInTheMaze.size(); i++) {
+      Edge edge = big.edgesInTheMaze.get(i);
+      hash = hash * 31 + edge.weight * 1000003L + edge.node1.pos * 7919L + edge.node2.pos;
+    }
+    t.checkExpect(big.edgesInTheMaze.size(), 5999);
+    t.checkExpect(hash, 7024943798578141780L);
+  }
+
+  void testBraided(Tester t) {
+    this.initData();
+    Maze braided = new Maze(30, 20, new Random(5), 0.2);
+    // the tree's 599 edges plus a fifth of the 551 it left out
+    t.checkExpect(braided.edgesInTheMaze.size(), 599 + 110);
+    t.checkExpect(braided.edgesInTheMaze.get(0).weight,
+        braided.engine.grid.weight(braided.edgesInTheMaze.get(0).node1.pos,
+            braided.edgesInTheMaze.get(0).node2.pos));
+    braided.onKeyEvent("w");
+    braided.onKeyEvent("f");
+    t.checkExpect(braided.solved, true);
+    t.checkExpect(braided.pathCount, braided.engine.lastSolution.path().length - 1);
+    t.checkExpect(braided.nodeAt(599).color, Color.YELLOW);
+    // a new maze is braided the same way
+    braided.newMaze();
+    t.checkExpect(braided.edgesInTheMaze.size(), 599 + 110);
+    t.checkConstructorException(
+        new IllegalArgumentException("The share of edges to braid has to be in [0, 1]"),
+        "Maze", 5, 5, new Random(5), 1.5);
+  }
+
+  void testEndpoints(Tester t) {
+    this.initData();
+    // the path of maze4 is 0, 1, 4, 5, 8, this runs it backwards to the nearer of two goals
+    this.maze4.setEndpoints(8, 0, 4);
+    t.checkExpect(this.maze4.currentNode.pos, 8);
+    t.checkExpect(this.maze4.isGoal[4], true);
+    this.maze4.makeScene();
+    t.checkExpect(this.maze4.nodeAt(8).color, Color.GREEN);
+    t.checkExpect(this.maze4.nodeAt(0).color, Color.MAGENTA);
+    t.checkExpect(this.maze4.nodeAt(4).color, Color.MAGENTA);
+    this.maze4.onKeyEvent("b");
+    this.maze4.onKeyEvent("f");
+    t.checkExpect(this.maze4.reachedGoal, 4);
+    t.checkExpect(this.maze4.nodeAt(5).color, Color.YELLOW);
+    t.checkExpect(this.maze4.pathCount, 2);
+    t.checkExpect(this.maze4.wrongMoves, this.maze4.wrongMoveCount());
+
+    // moving the player onto any goal finishes the maze
+    this.maze1.setEndpoints(0, 1, 5);
+    this.maze1.onKeyEvent("right");
+    t.checkExpect(this.maze1.finished, true);
+    t.checkExpect(this.maze1.reachedGoal, 1);
+    // a new maze puts the endpoints back in the corners
+    this.maze1.newMaze();
+    t.checkExpect(this.maze1.isGoal[24], true);
+    t.checkExpect(this.maze1.isGoal[1], false);
+    t.checkExpect(this.maze1.reachedGoal, -1);
+  }
+
   void testToggle(Tester t) {
     this.initData();
 
@@ -1240,19 +1900,61 @@ class ExampleMaze extends World {
     t.checkExpect(this.maze5.edgesInTheMaze.size(), 5999);
   }
 
-  void testFind(Tester t) {
-    this.initDataFind();
+  void testLoadGrid(Tester t) {
+    this.initData();
+    // every passage the engine opened shows up as an edge between the nodes it joins
+    t.checkExpect(this.maze4.edgesInTheMaze.size(), 8);
+    boolean open = true;
+    for (int i = 0; i < this.maze4.edgesInTheMaze.size(); i++) {
+      Edge edge = this.maze4.edgesInTheMaze.get(i);
+      open = open && this.maze4.engine.grid.isOpen(
+          WallGrid.passageBit(edge.node1.pos, edge.node2.pos, 3));
+    }
+    t.checkExpect(open, true);
+    t.checkExpect(this.maze4.nodeAt(1).bottom, this.maze4.nodeAt(4));
+    t.checkExpect(this.maze4.nodeAt(4).top, this.maze4.nodeAt(1));
+    t.checkExpect(this.maze4.toWallGrid(), this.maze4.engine.grid);
+    // a maze read from a grid does not know the order its edges were kept in, so they come
+    // in the order of their cells
+    Maze loaded = new Maze(this.maze4.engine.grid);
+    t.checkExpect(loaded.edgesInTheMaze.size(), 8);
+    t.checkExpect(loaded.edgesInTheMaze.get(0).node1, loaded.nodeAt(0));
+    t.checkExpect(loaded.edgesInTheMaze.get(0).node2, loaded.nodeAt(1));
+    t.checkExpect(loaded.nodeAt(1).bottom, loaded.nodeAt(4));
+  }
+
+  void testSearchHelpWithCollection(Tester t) {
+    this.initData();
+    // a collection of nodes drives the engine's search the same way its own worklists do
+    this.maze5.searchHelp(this.maze5.nodeAt(0), this.maze5.nodeAt(5999), new Queue<Node>());
+    t.checkExpect(this.maze5.visitedNodes.size(), 5455);
+    t.checkExpect(this.maze5.visitedNodes.get(9).pos, 202);
+    t.checkExpect(this.maze5.finished, true);
+    this.initData();
+    this.maze5.searchHelp(this.maze5.nodeAt(0), this.maze5.nodeAt(5999), 
+        this.maze5.priorityWorklist(new ManhattanHeuristic()));
+    t.checkExpect(this.maze5.expandedNodes, 4043);
+  }
+
+  void testShowSolution(Tester t) {
+    this.initData();
+    this.maze4.onKeyEvent("right");
+    this.maze4.showSolution(this.maze4.engine.solve("bfs"));
+    t.checkExpect(this.maze4.visitedNodes.size(), 
+        this.maze4.engine.lastSolution.visitedOrder.length);
+    t.checkExpect(this.maze4.visitedNodes.get(1), this.maze4.nodeAt(1));
+    t.checkExpect(this.maze4.cameFromNode[8], 5);
+    t.checkExpect(this.maze4.cameFromNode[1], 0);
+    t.checkExpect(this.maze4.finished, true);
+  }
+
+  void testGenerationTimePerCell(Tester t) {
     this.initData();
-    hash1.put(1, 2);
-    hash1.put(2, 3);
-    hash1.put(3, 4);
-    hash1.put(4, 5);
-    hash1.put(5, 5);
-    t.checkExpect(this.maze2.find(this.hash1, 1), 5);
-    hash2.put(3, 5);
-    hash2.put(4, 6);
-    hash2.put(5, 5);
-    t.checkExpect(this.maze2.find(this.hash2, 3), 5);
+    t.checkExpect(this.maze5.engine.generationTime > 0, true);
+    t.checkInexact(this.maze5.generationTimePerCell(), 
+        (double) this.maze5.engine.generationTime / 6000, 0.001);
+    this.maze5.newMaze();
+    t.checkExpect(this.maze5.generationTimePerCell() > 0, true);
   }
 
   void testBigBang(Tester t) {
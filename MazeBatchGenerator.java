@@ -0,0 +1,328 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import tester.*;
+
+// represents one maze made by a MazeBatchGenerator, or the reason it could not be made
+class GeneratedMaze {
+  long seed;
+  WallGrid grid;
+  long generationTime; // nanoseconds spent generating the maze
+  Throwable failure = null; // what went wrong generating the maze, or null if nothing did
+
+  // constructor for GeneratedMaze
+  GeneratedMaze(long seed, WallGrid grid, long generationTime) {
+    this.seed = seed;
+    this.grid = grid;
+    this.generationTime = generationTime;
+  }
+
+  // constructor for a GeneratedMaze that failed to generate
+  GeneratedMaze(long seed, Throwable failure) {
+    this.seed = seed;
+    this.failure = failure;
+  }
+}
+
+// represents a pool of threads that generates many independent mazes of the same size at once,
+// each maze draws from its own SplittableRandom so it only depends on its seed and never on
+// which thread made it or when
+class MazeBatchGenerator {
+  int width;
+  int height;
+  int maxPending; // how many finished mazes may wait to be taken, 0 for no limit
+  ExecutorService pool;
+
+  // constructor for MazeBatchGenerator using one thread per core and no limit on waiting mazes
+  MazeBatchGenerator(int width, int height) {
+    this(width, height, Runtime.getRuntime().availableProcessors(), 0);
+  }
+
+  // constructor for MazeBatchGenerator with the given number of threads, when maxPending is
+  // more than 0 the threads wait once that many finished mazes have not been taken yet
+  MazeBatchGenerator(int width, int height, int threads, int maxPending) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("A batch needs at least one thread");
+    }
+    if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A maze of " + width + " by " + height
+          + " cells can not be generated");
+    }
+    this.width = width;
+    this.height = height;
+    this.maxPending = maxPending;
+    this.pool = Executors.newFixedThreadPool(threads, task -> {
+      Thread thread = new Thread(task, "maze-batch");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  // returns the maze for the given seed, the same one on every call
+  GeneratedMaze generateOne(long seed) {
+    long startTime = System.nanoTime();
+    WallGrid grid = WallGrid.generate(this.width, this.height, new SplittableRandom(seed));
+    return new GeneratedMaze(seed, grid, System.nanoTime() - startTime);
+  }
+
+  // returns the mazes for all of the given seeds, in the order they finish rather than the
+  // order of the seeds, a maze that fails to generate still takes its turn, so the failure
+  // is thrown when it comes up instead of leaving the batch waiting for it forever
+  // a batch that is not taken to the end has to be closed, or with maxPending its threads
+  // wait forever to hand over mazes nobody takes
+  // EFFECT: hands one task per seed to the threads of this generator
+  FinishedMazes generate(long[] seeds) {
+    BlockingQueue<GeneratedMaze> finished;
+    if (this.maxPending > 0) {
+      finished = new ArrayBlockingQueue<GeneratedMaze>(this.maxPending);
+    }
+    else {
+      finished = new LinkedBlockingQueue<GeneratedMaze>();
+    }
+    FinishedMazes mazes = new FinishedMazes(finished, seeds.length);
+    for (int i = 0; i < seeds.length; i++) {
+      long seed = seeds[i];
+      mazes.tasks.add(this.pool.submit(() -> this.handOver(seed, mazes)));
+    }
+    return mazes;
+  }
+
+  // EFFECT: generates the maze for the given seed and hands it over to the given batch, or
+  // hands over what went wrong instead, being interrupted while waiting to hand it over means
+  // the work is to stop, so the maze is handed over as failed, unless the batch was closed
+  // and nobody is left to take it
+  void handOver(long seed, FinishedMazes mazes) {
+    GeneratedMaze maze;
+    try {
+      maze = this.generateOne(seed);
+    }
+    catch (Throwable e) {
+      maze = new GeneratedMaze(seed, e);
+    }
+    boolean interrupted = false;
+    while (!mazes.closed) {
+      try {
+        mazes.finished.put(maze);
+        break;
+      }
+      catch (InterruptedException e) {
+        interrupted = true;
+        maze = new GeneratedMaze(seed, e);
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // EFFECT: stops the threads of this generator once they finish the mazes they were given
+  void shutdown() {
+    this.pool.shutdown();
+  }
+}
+
+// represents the mazes of a batch that are still to come, taken as soon as they are finished
+// closing it stops the mazes that are left, so a batch can be given up on part way through
+class FinishedMazes implements Iterator<GeneratedMaze>, AutoCloseable {
+  BlockingQueue<GeneratedMaze> finished;
+  int remaining; // how many mazes of the batch have not been taken yet
+  ArrayList<Future<?>> tasks; // the tasks making the mazes of the batch
+  volatile boolean closed = false; // whether the mazes left are no longer wanted
+
+  // constructor for FinishedMazes
+  FinishedMazes(BlockingQueue<GeneratedMaze> finished, int remaining) {
+    this.finished = finished;
+    this.remaining = remaining;
+    this.tasks = new ArrayList<Future<?>>();
+  }
+
+  // returns whether there are mazes of the batch left to take
+  public boolean hasNext() {
+    return this.remaining > 0;
+  }
+
+  // returns the next maze to finish, waiting for it if need be, or throws an
+  // IllegalStateException if that maze failed to generate
+  // EFFECT: frees a spot for a waiting thread to hand its maze over
+  public GeneratedMaze next() {
+    if (this.remaining == 0) {
+      throw new NoSuchElementException("Every maze of the batch has been taken");
+    }
+    GeneratedMaze maze;
+    try {
+      maze = this.finished.take();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a maze", e);
+    }
+    this.remaining--;
+    if (maze.failure != null) {
+      throw new IllegalStateException("The maze for seed " + maze.seed
+          + " failed to generate", maze.failure);
+    }
+    return maze;
+  }
+
+  // EFFECT: gives up on the mazes of the batch that have not been taken, the tasks that have
+  // not started never run and the ones waiting to hand over their maze stop waiting, so the
+  // threads are free for the next batch
+  public void close() {
+    this.closed = true;
+    this.remaining = 0;
+    for (int i = 0; i < this.tasks.size(); i++) {
+      this.tasks.get(i).cancel(true);
+    }
+  }
+}
+
+// class for testing the MazeBatchGenerator
+class ExampleMazeBatchGenerator {
+  MazeBatchGenerator batch1;
+  MazeBatchGenerator batch2;
+  long[] seeds;
+
+  // initializes the data for testing
+  void initData() {
+    this.batch1 = new MazeBatchGenerator(30, 20, 4, 2);
+    this.batch2 = new MazeBatchGenerator(30, 20);
+    this.seeds = new long[40];
+    for (int i = 0; i < this.seeds.length; i++) {
+      this.seeds[i] = i * 7919L;
+    }
+  }
+
+  void testGenerateOne(Tester t) {
+    this.initData();
+    GeneratedMaze maze = this.batch1.generateOne(42);
+    t.checkExpect(maze.seed, 42L);
+    t.checkExpect(maze.grid.length, 30);
+    t.checkExpect(maze.grid.bits, this.batch2.generateOne(42).grid.bits);
+    t.checkExpect(maze.grid.bits, 
+        WallGrid.generate(30, 20, new SplittableRandom(42)).bits);
+    this.batch1.shutdown();
+    this.batch2.shutdown();
+  }
+
+  void testGenerate(Tester t) {
+    this.initData();
+    // with only two spots for finished mazes the threads wait on this loop, and every maze
+    // still comes back exactly as it would have alone
+    HashMap<Long, WallGrid> bySeed = new HashMap<Long, WallGrid>();
+    Iterator<GeneratedMaze> mazes = this.batch1.generate(this.seeds);
+    while (mazes.hasNext()) {
+      GeneratedMaze maze = mazes.next();
+      bySeed.put(maze.seed, maze.grid);
+    }
+    t.checkExpect(bySeed.size(), 40);
+    boolean same = true;
+    for (int i = 0; i < this.seeds.length; i++) {
+      same = same && Arrays.equals(bySeed.get(this.seeds[i]).bits, 
+          this.batch2.generateOne(this.seeds[i]).grid.bits);
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(mazes.hasNext(), false);
+    this.batch1.shutdown();
+    this.batch2.shutdown();
+  }
+
+  void testUnboundedGenerate(Tester t) {
+    this.initData();
+    ArrayList<GeneratedMaze> all = new ArrayList<GeneratedMaze>();
+    Iterator<GeneratedMaze> mazes = this.batch2.generate(this.seeds);
+    while (mazes.hasNext()) {
+      all.add(mazes.next());
+    }
+    t.checkExpect(all.size(), 40);
+    t.checkException(new NoSuchElementException("Every maze of the batch has been taken"),
+        mazes, "next");
+    this.batch1.shutdown();
+    this.batch2.shutdown();
+  }
+
+  void testThreads(Tester t) {
+    t.checkConstructorException(new IllegalArgumentException("A batch needs at least one thread"),
+        "MazeBatchGenerator", 10, 10, 0, 0);
+  }
+
+  void testBadSize(Tester t) {
+    t.checkConstructorException(
+        new IllegalArgumentException("A maze of -3 by 10 cells can not be generated"),
+        "MazeBatchGenerator", -3, 10, 1, 0);
+    t.checkConstructorException(
+        new IllegalArgumentException("A maze of 50000 by 50000 cells can not be generated"),
+        "MazeBatchGenerator", 50000, 50000, 1, 0);
+  }
+
+  void testFailure(Tester t) {
+    this.initData();
+    // a size that gets past the constructor and then fails inside the threads
+    this.batch1.width = -3;
+    Iterator<GeneratedMaze> mazes = this.batch1.generate(new long[] {5, 6, 7});
+    t.checkException(new IllegalStateException("The maze for seed 5 failed to generate"),
+        new FinishedMazes(new LinkedBlockingQueue<GeneratedMaze>(
+            Arrays.asList(new GeneratedMaze(5, new OutOfMemoryError()))), 1), "next");
+    // every failure is handed over in turn instead of leaving next waiting
+    int failures = 0;
+    while (mazes.hasNext()) {
+      try {
+        mazes.next();
+      }
+      catch (IllegalStateException e) {
+        failures++;
+      }
+    }
+    t.checkExpect(failures, 3);
+    this.batch1.shutdown();
+    this.batch2.shutdown();
+  }
+
+  void testClose(Tester t) {
+    this.initData();
+    // with two spots for finished mazes, taking only three leaves the threads waiting
+    FinishedMazes mazes = this.batch1.generate(this.seeds);
+    mazes.next();
+    mazes.next();
+    mazes.next();
+    mazes.close();
+    t.checkExpect(mazes.hasNext(), false);
+    // the threads are free again, so the next batch comes back whole
+    int taken = 0;
+    try (FinishedMazes again = this.batch1.generate(new long[] {1, 2, 3, 4, 5})) {
+      while (again.hasNext()) {
+        again.next();
+        taken++;
+      }
+    }
+    t.checkExpect(taken, 5);
+    this.batch1.shutdown();
+    this.batch2.shutdown();
+  }
+
+  void testInterrupted(Tester t) {
+    this.initData();
+    // a thread interrupted while handing its maze over hands over a failure instead
+    FinishedMazes mazes = new FinishedMazes(new ArrayBlockingQueue<GeneratedMaze>(1), 1);
+    Thread.currentThread().interrupt();
+    this.batch1.handOver(5, mazes);
+    t.checkExpect(Thread.interrupted(), true);
+    t.checkException(new IllegalStateException("The maze for seed 5 failed to generate"),
+        mazes, "next");
+    // nothing is handed over to a closed batch
+    FinishedMazes closed = new FinishedMazes(new ArrayBlockingQueue<GeneratedMaze>(1), 1);
+    closed.close();
+    this.batch1.handOver(5, closed);
+    t.checkExpect(closed.finished.size(), 0);
+    this.batch1.shutdown();
+    this.batch2.shutdown();
+  }
+}
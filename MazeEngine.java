@@ -0,0 +1,787 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+import tester.*;
+
+// represents the outcome of one search through a maze, kept as positions so it can be
+// replayed, stored or sent elsewhere without any Node or image
+class MazeSolution {
+  String algorithm;
+  int from;
+  int to;
+  int[] visitedOrder; // the positions in the order the search took them off its worklist
+  int[] cameFrom; // the position each position was reached from, or -1, null when replayed
+  int[] path = null; // the path of a solution without a cameFrom, replayed or over junctions
+  int expanded; // how many positions the search expanded
+  int maxWorklist; // the most positions that were ever waiting on the worklist at once
+  boolean found; // whether the search reached the goal
+  long cost = -1; // the summed weights of the path of a weighted search, or -1 for the others
+
+  // constructor for MazeSolution
+  MazeSolution(String algorithm, int from, int to, int[] visitedOrder, int[] cameFrom,
+      int expanded, int maxWorklist, boolean found) {
+    this.algorithm = algorithm;
+    this.from = from;
+    this.to = to;
+    this.visitedOrder = visitedOrder;
+    this.cameFrom = cameFrom;
+    this.expanded = expanded;
+    this.maxWorklist = maxWorklist;
+    this.found = found;
+  }
+
+  // returns the positions on the path from the start to the goal, both included, or an empty
+  // array if the goal was not found
+  int[] path() {
+    if (!this.found) {
+      return new int[0];
+    }
+    if (this.cameFrom == null) {
+      return this.path.clone();
+    }
+    int moves = 0;
+    for (int current = this.to; current != this.from; current = this.cameFrom[current]) {
+      moves++;
+    }
+    int[] path = new int[moves + 1];
+    int index = moves;
+    for (int current = this.to; current != this.from; current = this.cameFrom[current]) {
+      path[index] = current;
+      index--;
+    }
+    path[0] = this.from;
+    return path;
+  }
+}
+
+// represents a summary of what a MazeEngine has done so far
+class MazeStatistics {
+  int length;
+  int height;
+  long seed; // the seed the maze was generated from, or -1 if it came from elsewhere
+  long generationTime; // nanoseconds spent generating the maze
+  long bytesUsed; // bytes taken up by the packed walls of the maze
+  String algorithm; // the last algorithm used to solve the maze, or "none"
+  int visited; // positions the last search took off its worklist
+  int expanded; // positions the last search expanded
+  int pathLength; // moves on the path the last search found
+
+  // constructor for MazeStatistics, reads the numbers off of the given engine
+  MazeStatistics(MazeEngine engine) {
+    this.length = engine.length;
+    this.height = engine.height;
+    this.seed = engine.seed;
+    this.generationTime = engine.generationTime;
+    this.bytesUsed = engine.grid.bytesUsed();
+    this.algorithm = "none";
+    if (engine.lastSolution != null) {
+      this.algorithm = engine.lastSolution.algorithm;
+      this.visited = engine.lastSolution.visitedOrder.length;
+      this.expanded = engine.lastSolution.expanded;
+      this.pathLength = Math.max(engine.lastSolution.path().length - 1, 0);
+    }
+  }
+
+  // returns the nanoseconds spent generating each cell of the maze
+  double generationTimePerCell() {
+    return (double) this.generationTime / (this.length * this.height);
+  }
+}
+
+// represents the generation and solving of a maze with no drawing involved, so it can run
+// anywhere without javalib or a display, the Maze world is a view over one of these
+class MazeEngine {
+  WallGrid grid;
+  int length; // number of columns in the maze
+  int height; // number of rows in the maze
+  long seed = -1;
+  long generationTime = 0;
+
+  // the last solution found, used for the statistics
+  MazeSolution lastSolution = null;
+
+  // answers path questions between any two cells, built the first time it is asked for
+  PathIndex pathIndex = null;
+
+  // records where the time goes, disabled unless turned on
+  MazeMetrics metrics = new MazeMetrics(false);
+
+  // the share of the edges left out of the tree that generate opens again, 0 for a perfect maze
+  double braid = 0;
+
+  // the junctions of the maze, built by the first "junction" solve and kept for every solve
+  // after it whatever its endpoints, so only the first one pays for the preprocessing
+  JunctionGraph junctions = null;
+
+  // solutions already found, which may be shared with other engines, or null to always search
+  SolutionCache solutions = null;
+
+  // the fingerprint of the maze the solutions are cached under, worked out the first time
+  // it is needed so that a cache hit does not hash the whole maze again
+  Long fingerprint = null;
+
+  // the cell solve starts from and the cells it stops at, the top left and bottom right
+  // corners unless set otherwise, a new maze puts them back in the corners
+  int start = 0;
+  int[] goals = new int[0];
+
+  // constructor for a MazeEngine with no maze yet
+  MazeEngine() {
+    this.grid = new WallGrid(0, 0);
+  }
+
+  // constructor for a MazeEngine over an already generated maze
+  MazeEngine(WallGrid grid) {
+    this.load(grid);
+  }
+
+  // EFFECT: generates a new maze of the given size from the given seed
+  void generate(int width, int height, long seed) {
+    this.generate(width, height, new Random(seed));
+    this.seed = seed;
+  }
+
+  // EFFECT: generates a new maze of the given size, drawing its edge weights from rand
+  void generate(int width, int height, RandomGenerator rand) {
+    this.generate(width, height, rand, null);
+  }
+
+  // EFFECT: generates a new maze of the given size, drawing its edge weights from rand, and
+  // records the edges it opens in kept unless kept is null
+  void generate(int width, int height, RandomGenerator rand, KeptEdges kept) {
+    long startTime = System.nanoTime();
+    this.load(WallGrid.generate(width, height, rand, this.braid, this.metrics, kept));
+    this.generationTime = System.nanoTime() - startTime;
+    this.metrics.record(MazeMetrics.GENERATION_TIME, this.generationTime);
+  }
+
+  // EFFECT: makes the given grid the maze of this engine
+  void load(WallGrid grid) {
+    this.grid = grid;
+    this.length = grid.length;
+    this.height = grid.height;
+    this.seed = -1;
+    this.generationTime = 0;
+    this.lastSolution = null;
+    this.pathIndex = null;
+    this.junctions = null;
+    this.fingerprint = null;
+    this.start = 0;
+    this.goals = new int[] {grid.cells() - 1};
+  }
+
+  // EFFECT: makes the given cells the start and the goals of solve(algorithm)
+  void setEndpoints(int start, int... goals) {
+    this.checkEndpoints(start, goals);
+    this.start = start;
+    this.goals = goals.clone();
+  }
+
+  // EFFECT: throws an IllegalArgumentException unless the given start and goals are cells of
+  // this maze and there is at least one goal
+  void checkEndpoints(int start, int[] goals) {
+    if (goals.length == 0) {
+      throw new IllegalArgumentException("A query needs at least one goal");
+    }
+    boolean inside = start >= 0 && start < this.grid.cells();
+    for (int i = 0; i < goals.length; i++) {
+      inside = inside && goals[i] >= 0 && goals[i] < this.grid.cells();
+    }
+    if (!inside) {
+      throw new IllegalArgumentException("Endpoints have to be cells of the maze");
+    }
+  }
+
+  // returns the nanoseconds the last generation took per cell
+  double generationTimePerCell() {
+    return (double) this.generationTime / (this.length * this.height);
+  }
+
+  // returns the solution of the maze from the start to the closest goal using the given
+  // algorithm, one of "bfs", "dfs", "dijkstra", "astar", "bidirectional", "weighted" or
+  // "junction"
+  MazeSolution solve(String algorithm) {
+    return this.solve(algorithm, this.start, this.goals);
+  }
+
+  // returns the solution of the maze from the given cell to whichever of the given goals the
+  // algorithm reaches first, without changing the endpoints of this engine, so one maze can
+  // answer any number of routes
+  // when this engine has a solution cache, a solution already in it is replayed instead
+  MazeSolution solve(String algorithm, int from, int... goals) {
+    this.checkEndpoints(from, goals);
+    if (this.solutions == null) {
+      return this.run(algorithm, from, goals);
+    }
+    MazeSolution cached = this.solutions.get(this.fingerprint(), from, goals, algorithm);
+    if (cached != null) {
+      this.lastSolution = cached;
+      return cached;
+    }
+    MazeSolution solution = this.run(algorithm, from, goals);
+    this.solutions.put(this.fingerprint(), goals, solution);
+    return solution;
+  }
+
+  // returns the fingerprint of the maze of this engine
+  // EFFECT: works it out if this engine does not have it yet
+  long fingerprint() {
+    if (this.fingerprint == null) {
+      this.fingerprint = this.grid.fingerprint();
+    }
+    return this.fingerprint;
+  }
+
+  // returns the solution of the maze from one position to the closest of the goals found by
+  // running the given algorithm
+  MazeSolution run(String algorithm, int from, int[] goals) {
+    if (algorithm.equals("bfs")) {
+      return this.search(algorithm, from, goals, new IntQueue(this.length + this.height));
+    }
+    if (algorithm.equals("dfs")) {
+      return this.search(algorithm, from, goals, new IntStack(this.length + this.height));
+    }
+    if (algorithm.equals("dijkstra")) {
+      return this.search(algorithm, from, goals,
+          new HeapWorklist(this.grid.cells(), this.length, goals, new ZeroHeuristic()));
+    }
+    if (algorithm.equals("astar")) {
+      return this.search(algorithm, from, goals,
+          new HeapWorklist(this.grid.cells(), this.length, goals, new ManhattanHeuristic()));
+    }
+    if (algorithm.equals("bidirectional")) {
+      return this.bidirectional(from, goals);
+    }
+    if (algorithm.equals("weighted")) {
+      return this.weighted(from, goals);
+    }
+    if (algorithm.equals("junction")) {
+      return this.junctionSolve(from, goals);
+    }
+    throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+  }
+
+  // returns the statistics of this engine
+  MazeStatistics statistics() {
+    return new MazeStatistics(this);
+  }
+
+  // returns the path index of this maze, hung from the top left cell, a braided maze has loops
+  // so there is no index to give and an IllegalStateException is thrown instead
+  // EFFECT: builds the index if this engine does not have one yet
+  PathIndex pathIndex() {
+    if (this.grid.weights != null) {
+      throw new IllegalStateException("A braided maze has loops, so it has no path index");
+    }
+    if (this.pathIndex == null) {
+      this.pathIndex = new PathIndex(this.grid, 0);
+    }
+    return this.pathIndex;
+  }
+
+  // returns the solution found by searching from one position to another, or through the whole
+  // maze if to is -1, taking the next position to expand from the given worklist
+  MazeSolution search(String algorithm, int from, int to, IWorklist workList) {
+    if (to == -1) {
+      return this.search(algorithm, from, new int[0], workList);
+    }
+    return this.search(algorithm, from, new int[] {to}, workList);
+  }
+
+  // returns the solution found by searching from one position until any of the goals is
+  // taken off the worklist, taking the next position to expand from the given worklist
+  MazeSolution search(String algorithm, int from, int[] goals, IWorklist workList) {
+    long startTime = this.metrics.now();
+    int cells = this.grid.cells();
+    // the goals are looked up by position, so any number of them costs the same per step
+    boolean[] isGoal = new boolean[cells];
+    for (int i = 0; i < goals.length; i++) {
+      isGoal[goals[i]] = true;
+    }
+    int to = -1;
+    if (goals.length > 0) {
+      to = goals[0];
+    }
+    int[] cameFrom = new int[cells];
+    Arrays.fill(cameFrom, -1);
+    // indexed by position, so checking a position costs the same on any board
+    boolean[] alreadySeen = new boolean[cells];
+    int[] visitedOrder = new int[16];
+    int visited = 0;
+    int expanded = 0;
+    boolean found = false;
+    int waiting = 1; // how many positions are on the worklist
+    int maxWorklist = 1;
+
+    workList.add(from);
+    while (!workList.isEmpty()) {
+      int next = workList.remove();
+      waiting--;
+      if (visited == visitedOrder.length) {
+        visitedOrder = Arrays.copyOf(visitedOrder, visited * 2);
+      }
+      visitedOrder[visited] = next;
+      visited++;
+
+      if (isGoal[next]) {
+        to = next;
+        found = true;
+        break;
+      }
+      else if (alreadySeen[next]) {
+        // don't care, discard
+      }
+      else {
+        waiting += this.reach(next, this.grid.top(next), workList, alreadySeen, cameFrom)
+            + this.reach(next, this.grid.bottom(next), workList, alreadySeen, cameFrom)
+            + this.reach(next, this.grid.left(next), workList, alreadySeen, cameFrom)
+            + this.reach(next, this.grid.right(next), workList, alreadySeen, cameFrom);
+        maxWorklist = Math.max(maxWorklist, waiting);
+        alreadySeen[next] = true;
+        expanded++;
+      }
+    }
+
+    this.lastSolution = new MazeSolution(algorithm, from, to,
+        Arrays.copyOf(visitedOrder, visited), cameFrom, expanded, maxWorklist, found);
+    this.recordSearch(this.lastSolution, startTime);
+    return this.lastSolution;
+  }
+
+  // returns 1 if the neighbor of next was added to the worklist and 0 if not
+  // EFFECT: adds the neighbor of next to the worklist if there is one and it is not seen yet,
+  // and records that it was reached from next unless the worklist already had a shorter way
+  // to it, which happens in a maze with loops
+  int reach(int next, int neighbor, IWorklist workList, boolean[] alreadySeen,
+      int[] cameFrom) {
+    if (neighbor != -1 && !alreadySeen[neighbor] && workList.add(neighbor)) {
+      cameFrom[neighbor] = next;
+      return 1;
+    }
+    return 0;
+  }
+
+  // EFFECT: records the numbers of the given solution, found by a search that started at the
+  // given time from now()
+  void recordSearch(MazeSolution solution, long startTime) {
+    if (this.metrics.enabled) {
+      this.metrics.recordTime(MazeMetrics.SEARCH_TIME, startTime);
+      this.metrics.record(MazeMetrics.EXPANDED, solution.expanded);
+      this.metrics.record(MazeMetrics.WORKLIST_HIGH_WATER, solution.maxWorklist);
+      if (solution.found) {
+        this.metrics.record(MazeMetrics.PATH_LENGTH, solution.path().length - 1);
+      }
+    }
+  }
+
+  // returns the cheapest path from the given position to any of the goals found over the
+  // junction graph of the maze
+  // EFFECT: builds the junction graph first if this maze does not have one yet
+  MazeSolution junctionSolve(int from, int[] goals) {
+    long startTime = this.metrics.now();
+    if (this.junctions == null) {
+      this.junctions = new JunctionGraph(this.grid, new int[0], false);
+    }
+    this.lastSolution = this.junctions.solve(from, goals);
+    this.recordSearch(this.lastSolution, startTime);
+    return this.lastSolution;
+  }
+
+  // returns the cheapest path from the given position to any of the goals, adding up the
+  // weights of the passages it goes through, found with Dijkstra's algorithm over a heap that
+  // lowers the key of a position it already holds, so every position is on the heap at most
+  // once and is taken off it exactly when its cost is final
+  MazeSolution weighted(int from, int[] goals) {
+    long startTime = this.metrics.now();
+    int cells = this.grid.cells();
+    boolean[] isGoal = new boolean[cells];
+    for (int i = 0; i < goals.length; i++) {
+      isGoal[goals[i]] = true;
+    }
+    int[] cameFrom = new int[cells];
+    Arrays.fill(cameFrom, -1);
+    boolean[] done = new boolean[cells];
+    IndexedMinHeap heap = new IndexedMinHeap(cells);
+    int[] visitedOrder = new int[16];
+    int visited = 0;
+    int expanded = 0;
+    int maxWorklist = 1;
+    int to = goals[0];
+    boolean found = false;
+    long cost = -1;
+
+    heap.insertOrDecrease(from, 0);
+    while (!heap.isEmpty()) {
+      int next = heap.removeMin();
+      done[next] = true;
+      if (visited == visitedOrder.length) {
+        visitedOrder = Arrays.copyOf(visitedOrder, visited * 2);
+      }
+      visitedOrder[visited] = next;
+      visited++;
+      if (isGoal[next]) {
+        to = next;
+        found = true;
+        cost = heap.keyOf(next);
+        break;
+      }
+      int[] around = {this.grid.top(next), this.grid.bottom(next),
+          this.grid.left(next), this.grid.right(next)};
+      for (int i = 0; i < around.length; i++) {
+        int neighbor = around[i];
+        if (neighbor != -1 && !done[neighbor]) {
+          long through = heap.keyOf(next) + this.grid.weight(next, neighbor);
+          if (!heap.contains(neighbor) || through < heap.keyOf(neighbor)) {
+            heap.insertOrDecrease(neighbor, through);
+            cameFrom[neighbor] = next;
+          }
+        }
+      }
+      maxWorklist = Math.max(maxWorklist, heap.size);
+      expanded++;
+    }
+
+    this.lastSolution = new MazeSolution("weighted", from, to,
+        Arrays.copyOf(visitedOrder, visited), cameFrom, expanded, maxWorklist, found);
+    this.lastSolution.cost = cost;
+    this.recordSearch(this.lastSolution, startTime);
+    return this.lastSolution;
+  }
+
+  // returns the solution found by a breadth-first search from both ends at once, taking turns
+  // expanding a position from each end until the two searches touch
+  MazeSolution bidirectional(int from, int to) {
+    return this.bidirectional(from, new int[] {to});
+  }
+
+  // returns the solution found by a breadth-first search from the start and one from all of
+  // the goals at once, which take turns until they touch, the path ends at the goal whose
+  // search was touched
+  MazeSolution bidirectional(int from, int[] goals) {
+    long startTime = this.metrics.now();
+    int cells = this.grid.cells();
+    // which search has reached each position, 0 for neither, 1 for the one from the start and
+    // 2 for the one from the end
+    byte[] side = new byte[cells];
+    int[] cameFrom = new int[cells];
+    int[] cameFromEnd = new int[cells];
+    Arrays.fill(cameFrom, -1);
+    Arrays.fill(cameFromEnd, -1);
+    IntQueue forward = new IntQueue(this.length + this.height);
+    IntQueue backward = new IntQueue(this.length + this.height);
+    int[] visitedOrder = new int[cells];
+    int visited = 0;
+    int to = goals[0];
+    boolean found = false;
+    int maxWorklist = 1 + goals.length;
+
+    for (int i = 0; i < goals.length; i++) {
+      if (side[goals[i]] == 0) {
+        backward.add(goals[i]);
+        side[goals[i]] = 2;
+      }
+      if (goals[i] == from) {
+        to = from;
+        found = true;
+      }
+    }
+    forward.add(from);
+    side[from] = 1;
+    if (found) {
+      visitedOrder[0] = from;
+      visited = 1;
+    }
+
+    while (!found && !forward.isEmpty() && !backward.isEmpty()) {
+      // a search expands a position, then the other search takes its turn
+      for (byte mark = 1; mark <= 2 && !found; mark++) {
+        IntQueue frontier = forward;
+        int[] reachedFrom = cameFrom;
+        if (mark == 2) {
+          frontier = backward;
+          reachedFrom = cameFromEnd;
+        }
+        int next = frontier.remove();
+        visitedOrder[visited] = next;
+        visited++;
+        int[] around = {this.grid.top(next), this.grid.bottom(next),
+            this.grid.left(next), this.grid.right(next)};
+        for (int i = 0; i < around.length && !found; i++) {
+          int neighbor = around[i];
+          if (neighbor == -1 || side[neighbor] == mark) {
+            // a wall, or already reached by this search
+          }
+          else if (side[neighbor] == 0) {
+            side[neighbor] = mark;
+            reachedFrom[neighbor] = next;
+            frontier.add(neighbor);
+            maxWorklist = Math.max(maxWorklist,
+                forward.tail - forward.head + backward.tail - backward.head);
+          }
+          else if (mark == 1) {
+            to = this.join(next, neighbor, cameFrom, cameFromEnd);
+            found = true;
+          }
+          else {
+            to = this.join(neighbor, next, cameFrom, cameFromEnd);
+            found = true;
+          }
+        }
+      }
+    }
+
+    this.lastSolution = new MazeSolution("bidirectional", from, to,
+        Arrays.copyOf(visitedOrder, visited), cameFrom, visited, maxWorklist, found);
+    this.recordSearch(this.lastSolution, startTime);
+    return this.lastSolution;
+  }
+
+  // returns the goal the half of the path found from the end leads to
+  // EFFECT: walks that half, starting at the position touched across from the start's search,
+  // and points it back towards the start
+  int join(int startSide, int endSide, int[] cameFrom, int[] cameFromEnd) {
+    int previous = startSide;
+    int current = endSide;
+    while (cameFromEnd[current] != -1) {
+      int following = cameFromEnd[current];
+      cameFrom[current] = previous;
+      previous = current;
+      current = following;
+    }
+    cameFrom[current] = previous;
+    return current;
+  }
+}
+
+// class for testing the MazeEngine
+class ExampleMazeEngine {
+  MazeEngine engine1;
+  MazeEngine engine3;
+  MazeEngine engine5;
+
+  // initializes the data for testing
+  void initData() {
+    this.engine1 = new MazeEngine();
+    this.engine1.generate(1, 1, 5);
+    this.engine3 = new MazeEngine();
+    this.engine3.generate(3, 3, 5);
+    this.engine5 = new MazeEngine();
+    this.engine5.generate(100, 60, 5);
+  }
+
+  void testGenerate(Tester t) {
+    this.initData();
+    t.checkExpect(this.engine5.length, 100);
+    t.checkExpect(this.engine5.height, 60);
+    t.checkExpect(this.engine5.seed, 5L);
+    // the same seed gives the same maze as the Maze world
+    t.checkExpect(this.engine5.grid.bits,
+        new Maze(100, 60, new Random(5)).toWallGrid().bits);
+    t.checkExpect(this.engine5.generationTime > 0, true);
+  }
+
+  void testSolve(Tester t) {
+    this.initData();
+    MazeSolution bfs = this.engine5.solve("bfs");
+    t.checkExpect(bfs.found, true);
+    t.checkExpect(bfs.visitedOrder.length, 5455);
+    t.checkExpect(bfs.expanded, 5454);
+    t.checkExpect(bfs.visitedOrder[9], 202);
+    MazeSolution dfs = this.engine5.solve("dfs");
+    t.checkExpect(dfs.visitedOrder.length, 3155);
+    t.checkExpect(dfs.visitedOrder[9], 204);
+    t.checkExpect(this.engine5.solve("dijkstra").expanded, 5454);
+    t.checkExpect(this.engine5.solve("astar").expanded, 4043);
+    t.checkExpect(this.engine5.solve("bidirectional").path(), bfs.path());
+    t.checkExpect(this.engine5.solve("astar").path(), bfs.path());
+    t.checkException(new IllegalArgumentException("Unknown algorithm: best"),
+        this.engine5, "solve", "best");
+  }
+
+  void testPath(Tester t) {
+    this.initData();
+    t.checkExpect(this.engine3.solve("bfs").path(), new int[] {0, 1, 4, 5, 8});
+    t.checkExpect(this.engine3.solve("dfs").path(), new int[] {0, 1, 4, 5, 8});
+    t.checkExpect(this.engine3.solve("bidirectional").path(), new int[] {0, 1, 4, 5, 8});
+    t.checkExpect(this.engine1.solve("bfs").path(), new int[] {0});
+    t.checkExpect(this.engine1.solve("bidirectional").path(), new int[] {0});
+  }
+
+  void testStatistics(Tester t) {
+    this.initData();
+    MazeStatistics before = this.engine3.statistics();
+    t.checkExpect(before.algorithm, "none");
+    t.checkExpect(before.length * before.height, 9);
+    t.checkExpect(before.bytesUsed, 8L);
+    this.engine3.solve("bfs");
+    MazeStatistics after = this.engine3.statistics();
+    t.checkExpect(after.algorithm, "bfs");
+    t.checkExpect(after.pathLength, 4);
+    t.checkExpect(after.expanded, this.engine3.lastSolution.expanded);
+    t.checkInexact(after.generationTimePerCell(), this.engine3.generationTimePerCell(), 0.001);
+  }
+
+  void testPathIndex(Tester t) {
+    this.initData();
+    t.checkExpect(this.engine3.pathIndex().distance(0, 8), 4);
+    t.checkExpect(this.engine3.pathIndex(), this.engine3.pathIndex);
+    this.engine3.generate(3, 3, 6);
+    t.checkExpect(this.engine3.pathIndex, null);
+    MazeEngine braided = new MazeEngine();
+    braided.braid = 0.3;
+    braided.generate(30, 20, 5);
+    t.checkException(
+        new IllegalStateException("A braided maze has loops, so it has no path index"),
+        braided, "pathIndex");
+  }
+
+  void testEndpoints(Tester t) {
+    this.initData();
+    t.checkExpect(this.engine5.start, 0);
+    t.checkExpect(this.engine5.goals, new int[] {5999});
+    // the path of the 3 by 3 maze is 0, 1, 4, 5, 8
+    this.engine3.setEndpoints(8, 1);
+    t.checkExpect(this.engine3.solve("bfs").path(), new int[] {8, 5, 4, 1});
+    t.checkExpect(this.engine3.solve("bidirectional").path(), new int[] {8, 5, 4, 1});
+    // a query of its own leaves the endpoints of the engine alone
+    t.checkExpect(this.engine3.solve("astar", 4, 0).path(), new int[] {4, 1, 0});
+    t.checkExpect(this.engine3.start, 8);
+    // a new maze puts the endpoints back in the corners
+    this.engine3.generate(3, 3, 5);
+    t.checkExpect(this.engine3.goals, new int[] {8});
+    t.checkException(new IllegalArgumentException("Endpoints have to be cells of the maze"),
+        this.engine3, "setEndpoints", 0, new int[] {9});
+    t.checkException(new IllegalArgumentException("Endpoints have to be cells of the maze"),
+        this.engine3, "solve", "bfs", -1, new int[] {8});
+    t.checkException(new IllegalArgumentException("A query needs at least one goal"),
+        this.engine3, "solve", "bfs", 0, new int[0]);
+  }
+
+  void testWeighted(Tester t) {
+    this.initData();
+    // a perfect maze has one path, so the cheapest path is the only one
+    MazeSolution weighted = this.engine5.solve("weighted");
+    t.checkExpect(weighted.path(), this.engine5.solve("bfs").path());
+    t.checkExpect(weighted.cost, this.cost(this.engine5, weighted.path()));
+    t.checkExpect(this.engine1.solve("weighted").cost, 0L);
+
+    MazeEngine braided = new MazeEngine();
+    braided.braid = 0.3;
+    braided.generate(100, 60, 5);
+    MazeSolution cheapest = braided.solve("weighted");
+    MazeSolution fewest = braided.solve("bfs");
+    t.checkExpect(cheapest.cost, this.cost(braided, cheapest.path()));
+    t.checkExpect(cheapest.cost <= this.cost(braided, fewest.path()), true);
+    // the loops give shorter ways through than the tree
+    t.checkExpect(fewest.path().length < weighted.path().length, true);
+    // with decrease-key every position comes off the heap once
+    boolean[] seen = new boolean[6000];
+    boolean once = true;
+    for (int i = 0; i < cheapest.visitedOrder.length; i++) {
+      once = once && !seen[cheapest.visitedOrder[i]];
+      seen[cheapest.visitedOrder[i]] = true;
+    }
+    t.checkExpect(once, true);
+    // relaxing every passage until nothing changes gives the same cheapest cost
+    long[] best = new long[6000];
+    Arrays.fill(best, Long.MAX_VALUE);
+    best[0] = 0;
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int pos = 0; pos < 6000; pos++) {
+        int[] next = {braided.grid.right(pos), braided.grid.bottom(pos)};
+        for (int i = 0; i < next.length; i++) {
+          if (next[i] != -1 && best[pos] != Long.MAX_VALUE
+              && best[pos] + braided.grid.weight(pos, next[i]) < best[next[i]]) {
+            best[next[i]] = best[pos] + braided.grid.weight(pos, next[i]);
+            changed = true;
+          }
+          if (next[i] != -1 && best[next[i]] != Long.MAX_VALUE
+              && best[next[i]] + braided.grid.weight(pos, next[i]) < best[pos]) {
+            best[pos] = best[next[i]] + braided.grid.weight(pos, next[i]);
+            changed = true;
+          }
+        }
+      }
+    }
+    t.checkExpect(cheapest.cost, best[5999]);
+  }
+
+  void testBraidedAStar(Tester t) {
+    // loops give a position more than one way in, A* has to keep the shortest one
+    boolean shortest = true;
+    Random rand = new Random(7);
+    double[] braids = {0.05, 0.1, 0.3, 0.5};
+    for (int b = 0; b < braids.length; b++) {
+      MazeEngine braided = new MazeEngine();
+      braided.braid = braids[b];
+      braided.generate(40, 30, b);
+      for (int i = 0; i < 50; i++) {
+        int from = rand.nextInt(1200);
+        int to = rand.nextInt(1200);
+        MazeSolution aStar = braided.solve("astar", from, to);
+        shortest = shortest && aStar.path().length == braided.solve("bfs", from, to).path().length
+            && aStar.path()[0] == from;
+      }
+    }
+    t.checkExpect(shortest, true);
+  }
+
+  void testBraidedSearchHelp(Tester t) {
+    // the Maze's own priority worklist has to keep the shortest way into a node as well
+    Maze braided = new Maze(40, 30, new Random(29), 0.3);
+    braided.searchHelp(braided.nodeAt(0), braided.nodeAt(1199),
+        braided.priorityWorklist(new ManhattanHeuristic()));
+    t.checkExpect(braided.engine.lastSolution.path().length,
+        braided.engine.solve("bfs").path().length);
+    boolean shortest = true;
+    Random rand = new Random(11);
+    for (int i = 0; i < 50; i++) {
+      int from = rand.nextInt(1200);
+      int to = rand.nextInt(1200);
+      braided.searchHelp(braided.nodeAt(from), braided.nodeAt(to),
+          braided.priorityWorklist(new ManhattanHeuristic()));
+      int found = braided.engine.lastSolution.path().length;
+      shortest = shortest && found == braided.engine.solve("bfs", from, to).path().length;
+    }
+    t.checkExpect(shortest, true);
+  }
+
+  // returns the summed weights of the passages along the given path of the engine's maze
+  long cost(MazeEngine engine, int[] path) {
+    long cost = 0;
+    for (int i = 1; i < path.length; i++) {
+      cost += engine.grid.weight(path[i - 1], path[i]);
+    }
+    return cost;
+  }
+
+  void testManyGoals(Tester t) {
+    this.initData();
+    // every search stops at whichever goal it reaches first
+    t.checkExpect(this.engine3.solve("bfs", 0, 8, 4).path(), new int[] {0, 1, 4});
+    t.checkExpect(this.engine3.solve("bfs", 0, 8, 4).to, 4);
+    t.checkExpect(this.engine3.solve("dijkstra", 0, 8, 4).path(), new int[] {0, 1, 4});
+    t.checkExpect(this.engine3.solve("astar", 0, 8, 4).path(), new int[] {0, 1, 4});
+    t.checkExpect(this.engine3.solve("bidirectional", 0, 8, 4).to, 4);
+    t.checkExpect(this.engine3.solve("bidirectional", 0, 8, 4).path(), new int[] {0, 1, 4});
+    // starting on a goal is a path of one cell
+    t.checkExpect(this.engine3.solve("bidirectional", 5, 8, 5).path(), new int[] {5});
+    t.checkExpect(this.engine3.solve("dfs", 5, 8, 5).path(), new int[] {5});
+    // the closest of many goals in a big maze is the one the breadth first search finds
+    int[] goals = {5999, 3050, 120};
+    MazeSolution bfs = this.engine5.solve("bfs", 0, goals);
+    int closest = 5999;
+    for (int i = 0; i < goals.length; i++) {
+      if (this.engine5.pathIndex().distance(0, goals[i])
+          < this.engine5.pathIndex().distance(0, closest)) {
+        closest = goals[i];
+      }
+    }
+    t.checkExpect(bfs.to, closest);
+    t.checkExpect(this.engine5.solve("astar", 0, goals).to, closest);
+    t.checkExpect(this.engine5.solve("bidirectional", 0, goals).path().length - 1,
+        this.engine5.pathIndex().distance(0, this.engine5.lastSolution.to));
+  }
+}
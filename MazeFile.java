@@ -0,0 +1,477 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import tester.*;
+
+// represents the binary file a maze is saved in, which is a header of HEADER_BYTES bytes
+// followed by the packed passages of a WallGrid, all little endian:
+//   int magic, int version, int width, int height, long seed, int generator, int flags
+// the passages are the longs of WallGrid.bits in order, so bit 2 * pos of the passages says
+// whether the right passage of a cell is open and bit 2 * pos + 1 whether the bottom one is
+// when the WEIGHTED flag is set the passages are followed by the shorts of WallGrid.weights
+// in order, version 1 files have no flags and are still read
+class MazeFile {
+  static final int MAGIC = 0x4D415A45; // "MAZE" read as a big endian int
+  static final int VERSION = 2;
+  static final int HEADER_BYTES = 32;
+
+  // the flags of the header
+  static final int WEIGHTED = 1;
+
+  // the generators a maze file can say its maze came from
+  static final int UNKNOWN = 0;
+  static final int KRUSKAL = 1;
+  static final int ELLER = 2;
+  static final int TILED = 3;
+
+  // EFFECT: writes the given maze to the given file, replacing anything that was there,
+  // along with the weights of its passages if it is braided
+  static void write(WallGrid grid, long seed, int generator, File file) throws IOException {
+    int flags = 0;
+    if (grid.weights != null) {
+      flags |= MazeFile.WEIGHTED;
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(MazeFile.MAGIC).putInt(MazeFile.VERSION)
+          .putInt(grid.length).putInt(grid.height)
+          .putLong(seed).putInt(generator).putInt(flags);
+      for (int i = 0; i < grid.bits.length; i++) {
+        if (buffer.remaining() < 8) {
+          MazeFile.drain(buffer, channel);
+        }
+        buffer.putLong(grid.bits[i]);
+      }
+      if (grid.weights != null) {
+        for (int i = 0; i < grid.weights.length; i++) {
+          if (buffer.remaining() < 2) {
+            MazeFile.drain(buffer, channel);
+          }
+          buffer.putShort(grid.weights[i]);
+        }
+      }
+      MazeFile.drain(buffer, channel);
+    }
+  }
+
+  // EFFECT: writes the maze of the given engine to the given file, an engine only generates
+  // with Kruskal's algorithm, a maze it loaded from elsewhere has no seed and is written as
+  // coming from an unknown generator
+  static void write(MazeEngine engine, File file) throws IOException {
+    int generator = MazeFile.KRUSKAL;
+    if (engine.seed == -1) {
+      generator = MazeFile.UNKNOWN;
+    }
+    MazeFile.write(engine.grid, engine.seed, generator, file);
+  }
+
+  // EFFECT: writes out everything put in the buffer so far and empties it
+  static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  // returns the maze saved in the given file read whole into a WallGrid, for mazes that fit in
+  // memory, bigger ones can be opened as a MappedMaze instead
+  static WallGrid read(File file) throws IOException {
+    try (MappedMaze mapped = new MappedMaze(file)) {
+      if (mapped.cells() > Integer.MAX_VALUE) {
+        throw new IOException("The maze has too many cells to read whole, map it instead");
+      }
+      WallGrid grid = new WallGrid(mapped.width, mapped.height);
+      for (int i = 0; i < grid.bits.length; i++) {
+        grid.bits[i] = mapped.word(i);
+      }
+      if (mapped.weighted) {
+        grid.weights = new short[2 * grid.cells()];
+        for (int i = 0; i < grid.weights.length; i++) {
+          grid.weights[i] = mapped.weightAt(i);
+        }
+      }
+      return grid;
+    }
+  }
+}
+
+// represents a maze file mapped into memory, nothing is read when it is opened, looking up the
+// neighbors of a cell reads the few bytes it needs straight from the mapped pages, so a maze
+// of any size opens right away and only the parts of it that are visited are ever loaded
+// a single mapping can not be bigger than 2GB, so the file is mapped in segments
+class MappedMaze implements Closeable {
+  static final int SEGMENT_BYTES = 1 << 30;
+
+  int width; // number of columns in the maze
+  int height; // number of rows in the maze
+  long seed; // the seed the maze was generated from, or -1 if it is not known
+  int generator; // which generator made the maze, one of the ids in MazeFile
+  boolean weighted; // whether the file holds the weights of the passages
+  FileChannel channel;
+  MappedByteBuffer[] segments;
+  MappedByteBuffer[] weightSegments; // the weights mapped the same way, empty if there are none
+  int segmentBytes; // the size of every segment but the last
+
+  // constructor for MappedMaze over the given maze file
+  MappedMaze(File file) throws IOException {
+    this(file, MappedMaze.SEGMENT_BYTES);
+  }
+
+  // constructor for MappedMaze that maps the file in segments of the given size, which has to
+  // be a multiple of 8 so that no long of the passages or short of the weights is split
+  // between two segments
+  MappedMaze(File file, int segmentBytes) throws IOException {
+    if (segmentBytes <= 0 || segmentBytes % 8 != 0) {
+      throw new IllegalArgumentException("Segments have to be a positive multiple of 8 bytes");
+    }
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      this.readHeader(segmentBytes);
+    }
+    catch (IOException e) {
+      this.channel.close();
+      throw e;
+    }
+  }
+
+  // EFFECT: checks and reads the header of the file and maps the rest of it in segments of the
+  // given size
+  void readHeader(int segmentBytes) throws IOException {
+    long size = this.channel.size();
+    if (size < MazeFile.HEADER_BYTES) {
+      throw new IOException("Not a maze file");
+    }
+    ByteBuffer header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0,
+        MazeFile.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    if (header.getInt(0) != MazeFile.MAGIC) {
+      throw new IOException("Not a maze file");
+    }
+    int version = header.getInt(4);
+    if (version < 1 || version > MazeFile.VERSION) {
+      throw new IOException("Unsupported maze file version " + version);
+    }
+    this.width = header.getInt(8);
+    this.height = header.getInt(12);
+    if (this.width <= 0 || this.height <= 0) {
+      throw new IOException("Not a maze file");
+    }
+    this.seed = header.getLong(16);
+    this.generator = header.getInt(24);
+    this.weighted = version >= 2 && (header.getInt(28) & MazeFile.WEIGHTED) != 0;
+
+    long passageBytes = (this.cells() * 2 + 63) / 64 * 8;
+    long weightBytes = 0;
+    if (this.weighted) {
+      weightBytes = this.cells() * 2 * 2;
+    }
+    if (size < MazeFile.HEADER_BYTES + passageBytes + weightBytes) {
+      throw new IOException("The maze file is cut short");
+    }
+    this.segmentBytes = segmentBytes;
+    this.segments = this.map(MazeFile.HEADER_BYTES, passageBytes);
+    this.weightSegments = this.map(MazeFile.HEADER_BYTES + passageBytes, weightBytes);
+  }
+
+  // returns the given number of bytes of the file from the given offset on, mapped in
+  // segments of segmentBytes
+  MappedByteBuffer[] map(long offset, long bytes) throws IOException {
+    MappedByteBuffer[] mapped = new MappedByteBuffer[(int) ((bytes + this.segmentBytes - 1)
+        / this.segmentBytes)];
+    for (int i = 0; i < mapped.length; i++) {
+      long start = (long) i * this.segmentBytes;
+      mapped[i] = this.channel.map(FileChannel.MapMode.READ_ONLY, offset + start,
+          Math.min(this.segmentBytes, bytes - start));
+      mapped[i].order(ByteOrder.LITTLE_ENDIAN);
+    }
+    return mapped;
+  }
+
+  // returns the number of cells in the maze
+  long cells() {
+    return (long) this.width * this.height;
+  }
+
+  // returns the long of the packed passages at the given index
+  long word(long index) {
+    long offset = index * 8;
+    return this.segments[(int) (offset / this.segmentBytes)]
+        .getLong((int) (offset % this.segmentBytes));
+  }
+
+  // returns the weight at the given index of the weights, which is indexed like the bits
+  short weightAt(long index) {
+    long offset = index * 2;
+    return this.weightSegments[(int) (offset / this.segmentBytes)]
+        .getShort((int) (offset % this.segmentBytes));
+  }
+
+  // returns the cost of moving between the two given neighboring cells, 1 if the file holds no
+  // weights
+  int weight(long a, long b) {
+    if (!this.weighted) {
+      return 1;
+    }
+    return this.weightAt(WallGrid.passageBit(a, b, this.width));
+  }
+
+  // returns whether the given bit of the packed passages is set
+  boolean isOpen(long bit) {
+    return (this.word(bit >>> 6) & (1L << bit)) != 0;
+  }
+
+  // returns the position of the cell to the right of the given one, or -1 if there is a wall
+  long right(long pos) {
+    if (this.isOpen(2 * pos)) {
+      return pos + 1;
+    }
+    return -1;
+  }
+
+  // returns the position of the cell below the given one, or -1 if there is a wall
+  long bottom(long pos) {
+    if (this.isOpen(2 * pos + 1)) {
+      return pos + this.width;
+    }
+    return -1;
+  }
+
+  // returns the position of the cell to the left of the given one, or -1 if there is a wall
+  long left(long pos) {
+    if (pos % this.width != 0 && this.isOpen(2 * (pos - 1))) {
+      return pos - 1;
+    }
+    return -1;
+  }
+
+  // returns the position of the cell above the given one, or -1 if there is a wall
+  long top(long pos) {
+    if (pos >= this.width && this.isOpen(2 * (pos - this.width) + 1)) {
+      return pos - this.width;
+    }
+    return -1;
+  }
+
+  // EFFECT: closes the file, the mapped pages are let go of once nothing refers to them
+  public void close() throws IOException {
+    this.channel.close();
+  }
+}
+
+// class for testing the MazeFile and the MappedMaze
+class ExampleMazeFile {
+  MazeEngine engine5;
+  File file;
+
+  // initializes the data for testing
+  void initData() {
+    this.engine5 = new MazeEngine();
+    this.engine5.generate(100, 60, 5);
+    try {
+      this.file = File.createTempFile("maze", ".bin");
+      this.file.deleteOnExit();
+    }
+    catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  void testRoundTrip(Tester t) {
+    this.initData();
+    try {
+      MazeFile.write(this.engine5, this.file);
+      t.checkExpect(this.file.length(), 32L + this.engine5.grid.bytesUsed());
+      t.checkExpect(MazeFile.read(this.file).bits, this.engine5.grid.bits);
+      t.checkExpect(MazeFile.read(this.file).length, 100);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  void testMappedNeighbors(Tester t) {
+    this.initData();
+    WallGrid grid = this.engine5.grid;
+    // segments of 64 bytes split the passages of this maze over 24 mappings
+    try {
+      MazeFile.write(grid, 5, MazeFile.KRUSKAL, this.file);
+      MappedMaze mapped = new MappedMaze(this.file, 64);
+      t.checkExpect(mapped.width, 100);
+      t.checkExpect(mapped.height, 60);
+      t.checkExpect(mapped.seed, 5L);
+      t.checkExpect(mapped.generator, MazeFile.KRUSKAL);
+      t.checkExpect(mapped.segments.length, 24);
+      boolean same = true;
+      for (int pos = 0; pos < grid.cells(); pos++) {
+        same = same && mapped.right(pos) == grid.right(pos)
+            && mapped.bottom(pos) == grid.bottom(pos)
+            && mapped.left(pos) == grid.left(pos)
+            && mapped.top(pos) == grid.top(pos);
+      }
+      t.checkExpect(same, true);
+      mapped.close();
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  void testOtherGenerators(Tester t) {
+    this.initData();
+    WallGrid eller = EllerGenerator.generate(7, 3, new SplittableRandom(3));
+    try {
+      MazeFile.write(eller, -1, MazeFile.ELLER, this.file);
+      MappedMaze mapped = new MappedMaze(this.file);
+      t.checkExpect(mapped.generator, MazeFile.ELLER);
+      t.checkExpect(mapped.seed, -1L);
+      t.checkExpect(mapped.segments.length, 1);
+      mapped.close();
+      t.checkExpect(MazeFile.read(this.file).bits, eller.bits);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  void testBadFiles(Tester t) {
+    this.initData();
+    t.checkConstructorException(
+        new IllegalArgumentException("Segments have to be a positive multiple of 8 bytes"),
+        "MappedMaze", this.file, 12);
+    t.checkConstructorException(new IOException("Not a maze file"), "MappedMaze", this.file);
+    try {
+      MazeFile.write(this.engine5, this.file);
+      // a file whose passages are cut short
+      FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE);
+      channel.truncate(100);
+      channel.close();
+      t.checkConstructorException(new IOException("The maze file is cut short"), "MappedMaze",
+          this.file);
+
+      ByteBuffer header = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN)
+          .putInt(MazeFile.MAGIC).putInt(3);
+      header.clear();
+      channel = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE);
+      channel.write(header, 0);
+      channel.close();
+      t.checkConstructorException(new IOException("Unsupported maze file version 3"),
+          "MappedMaze", this.file);
+
+      // a header whose sizes make no sense
+      MazeFile.write(this.engine5, this.file);
+      ByteBuffer sizes = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+          .putInt(-100).putInt(60);
+      sizes.clear();
+      channel = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE);
+      channel.write(sizes, 8);
+      channel.close();
+      t.checkConstructorException(new IOException("Not a maze file"), "MappedMaze", this.file);
+      sizes = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0);
+      sizes.clear();
+      channel = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE);
+      channel.write(sizes, 8);
+      channel.close();
+      t.checkConstructorException(new IOException("Not a maze file"), "MappedMaze", this.file);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  void testBraided(Tester t) {
+    this.initData();
+    MazeEngine braided = new MazeEngine();
+    braided.braid = 0.3;
+    braided.generate(100, 60, 5);
+    try {
+      MazeFile.write(braided, this.file);
+      t.checkExpect(this.file.length(), 32L + braided.grid.bytesUsed() + 4 * 6000);
+      WallGrid read = MazeFile.read(this.file);
+      t.checkExpect(read.weights, braided.grid.weights);
+      t.checkExpect(read.fingerprint(), braided.grid.fingerprint());
+      t.checkExpect(new MazeEngine(read).solve("weighted").cost,
+          braided.solve("weighted").cost);
+      // the weights split over segments like the passages
+      MappedMaze mapped = new MappedMaze(this.file, 64);
+      t.checkExpect(mapped.weighted, true);
+      t.checkExpect(mapped.weightSegments.length, 375);
+      boolean same = true;
+      for (int pos = 0; pos < 6000; pos++) {
+        if (pos % 100 != 99) {
+          same = same && mapped.weight(pos, pos + 1) == braided.grid.weight(pos, pos + 1);
+        }
+        if (pos < 5900) {
+          same = same && mapped.weight(pos, pos + 100) == braided.grid.weight(pos, pos + 100);
+        }
+      }
+      t.checkExpect(same, true);
+      mapped.close();
+      // an unweighted maze has no weights in its file
+      MazeFile.write(this.engine5, this.file);
+      mapped = new MappedMaze(this.file);
+      t.checkExpect(mapped.weighted, false);
+      t.checkExpect(mapped.weight(0, 1), 1);
+      mapped.close();
+      t.checkExpect(MazeFile.read(this.file).weights, null);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  void testVersionOne(Tester t) {
+    this.initData();
+    try {
+      // a file from before the weights, whose last header int was reserved
+      MazeFile.write(this.engine5, this.file);
+      ByteBuffer version = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(1);
+      version.clear();
+      FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE);
+      channel.write(version, 4);
+      channel.close();
+      t.checkExpect(MazeFile.read(this.file).bits, this.engine5.grid.bits);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  void testGeneratorTag(Tester t) {
+    this.initData();
+    try {
+      MazeFile.write(this.engine5, this.file);
+      MappedMaze mapped = new MappedMaze(this.file);
+      t.checkExpect(mapped.generator, MazeFile.KRUSKAL);
+      mapped.close();
+      // an engine over an Eller maze does not know where it came from
+      MazeFile.write(new MazeEngine(EllerGenerator.generate(7, 3, new SplittableRandom(3))),
+          this.file);
+      mapped = new MappedMaze(this.file);
+      t.checkExpect(mapped.generator, MazeFile.UNKNOWN);
+      t.checkExpect(mapped.seed, -1L);
+      mapped.close();
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  void testReadIntoEngine(Tester t) {
+    this.initData();
+    try {
+      MazeFile.write(this.engine5, this.file);
+      MazeEngine loaded = new MazeEngine(MazeFile.read(this.file));
+      t.checkExpect(loaded.solve("bfs").path(), this.engine5.solve("bfs").path());
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+}
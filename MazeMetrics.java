@@ -0,0 +1,221 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import tester.*;
+
+// represents every value recorded under one name, summed up as it goes so that recording
+// never keeps more than four numbers
+class Metric {
+  long count; // how many values were recorded
+  long total;
+  long max;
+  long last;
+
+  // EFFECT: adds the given value to this metric
+  void record(long value) {
+    if (this.count == 0 || value > this.max) {
+      this.max = value;
+    }
+    this.count++;
+    this.total += value;
+    this.last = value;
+  }
+
+  // returns the average of the recorded values, or 0 if there are none
+  double mean() {
+    if (this.count == 0) {
+      return 0;
+    }
+    return (double) this.total / this.count;
+  }
+}
+
+// represents the numbers recorded about the work a MazeEngine and the Maze showing it do,
+// while it is disabled every call returns right away, so the places that record pay for one
+// check of a boolean and nothing else
+class MazeMetrics {
+  static final String GENERATION_TIME = "generation.time"; // nanoseconds
+  static final String EDGES_EXAMINED = "generation.edgesExamined";
+  static final String EDGES_ACCEPTED = "generation.edgesAccepted";
+  static final String EDGES_BRAIDED = "generation.edgesBraided";
+  static final String SEARCH_TIME = "search.time"; // nanoseconds
+  static final String EXPANDED = "search.expanded";
+  static final String WORKLIST_HIGH_WATER = "search.worklistHighWater";
+  static final String PATH_LENGTH = "search.pathLength"; // moves
+  static final String SCENE_TIME = "scene.time"; // nanoseconds
+  static final String SCENE_ALLOCATED = "scene.allocatedBytes";
+
+  boolean enabled;
+  TreeMap<String, Metric> metrics = new TreeMap<String, Metric>();
+
+  // constructor for MazeMetrics
+  MazeMetrics(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  // returns the current time in nanoseconds, or 0 without asking the clock while disabled
+  long now() {
+    if (!this.enabled) {
+      return 0;
+    }
+    return System.nanoTime();
+  }
+
+  // returns the bytes the current thread has allocated so far, or 0 while disabled or if the
+  // JVM can not tell
+  long allocatedBytes() {
+    if (!this.enabled) {
+      return 0;
+    }
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+    }
+    return 0;
+  }
+
+  // EFFECT: records the given value under the given name
+  void record(String name, long value) {
+    if (!this.enabled) {
+      return;
+    }
+    Metric metric = this.metrics.get(name);
+    if (metric == null) {
+      metric = new Metric();
+      this.metrics.put(name, metric);
+    }
+    metric.record(value);
+  }
+
+  // EFFECT: records the nanoseconds since the given time from now() under the given name
+  void recordTime(String name, long startTime) {
+    if (this.enabled) {
+      this.record(name, System.nanoTime() - startTime);
+    }
+  }
+
+  // returns the metric of the given name, or null if nothing was recorded under it
+  Metric get(String name) {
+    return this.metrics.get(name);
+  }
+
+  // EFFECT: forgets everything recorded so far
+  void clear() {
+    this.metrics.clear();
+  }
+
+  // returns every metric as a JSON object, one member per name in alphabetical order
+  String toJson() {
+    StringBuilder json = new StringBuilder();
+    json.append("{\n  \"enabled\": ").append(this.enabled).append(",\n  \"metrics\": {");
+    String separator = "\n";
+    for (Map.Entry<String, Metric> entry : this.metrics.entrySet()) {
+      Metric metric = entry.getValue();
+      json.append(separator)
+          .append("    \"").append(entry.getKey()).append("\": {")
+          .append("\"count\": ").append(metric.count)
+          .append(", \"total\": ").append(metric.total)
+          .append(", \"max\": ").append(metric.max)
+          .append(", \"last\": ").append(metric.last)
+          .append(", \"mean\": ").append(metric.mean())
+          .append("}");
+      separator = ",\n";
+    }
+    if (!this.metrics.isEmpty()) {
+      json.append("\n  ");
+    }
+    return json.append("}\n}").toString();
+  }
+}
+
+// class for testing the Metric and the MazeMetrics
+class ExampleMazeMetrics {
+  MazeMetrics off;
+  MazeMetrics on;
+  MazeEngine engine;
+  Maze maze;
+
+  // initializes the data for testing
+  void initData() {
+    this.off = new MazeMetrics(false);
+    this.on = new MazeMetrics(true);
+    this.engine = new MazeEngine();
+    this.engine.metrics = this.on;
+    this.maze = new Maze(100, 60, new Random(5));
+  }
+
+  void testMetric(Tester t) {
+    Metric metric = new Metric();
+    t.checkExpect(metric.mean(), 0.0);
+    metric.record(4);
+    metric.record(-2);
+    metric.record(7);
+    t.checkExpect(metric.count, 3L);
+    t.checkExpect(metric.total, 9L);
+    t.checkExpect(metric.max, 7L);
+    t.checkExpect(metric.last, 7L);
+    t.checkExpect(metric.mean(), 3.0);
+  }
+
+  void testDisabled(Tester t) {
+    this.initData();
+    this.off.record(MazeMetrics.EXPANDED, 5);
+    t.checkExpect(this.off.get(MazeMetrics.EXPANDED), null);
+    t.checkExpect(this.off.now(), 0L);
+    t.checkExpect(this.off.allocatedBytes(), 0L);
+    // the engine and the maze record nothing unless asked to
+    this.maze.onKeyEvent("b");
+    this.maze.makeScene();
+    t.checkExpect(this.maze.engine.metrics.metrics.size(), 0);
+  }
+
+  void testGeneration(Tester t) {
+    this.initData();
+    this.engine.generate(100, 60, 5);
+    t.checkExpect(this.on.get(MazeMetrics.GENERATION_TIME).count, 1L);
+    // a perfect maze of 6000 cells keeps 5999 of the edges it looks at
+    t.checkExpect(this.on.get(MazeMetrics.EDGES_ACCEPTED).last, 5999L);
+    t.checkRange(this.on.get(MazeMetrics.EDGES_EXAMINED).last, 5999L, 11841L);
+  }
+
+  void testSearch(Tester t) {
+    this.initData();
+    this.engine.generate(100, 60, 5);
+    this.engine.solve("bfs");
+    this.engine.solve("bidirectional");
+    t.checkExpect(this.on.get(MazeMetrics.EXPANDED).count, 2L);
+    t.checkExpect(this.on.get(MazeMetrics.EXPANDED).max, 5454L);
+    t.checkExpect(this.on.get(MazeMetrics.PATH_LENGTH).last,
+        (long) this.engine.pathIndex().distance(0, 5999));
+    t.checkExpect(this.on.get(MazeMetrics.WORKLIST_HIGH_WATER).count, 2L);
+    t.checkExpect(this.on.get(MazeMetrics.SEARCH_TIME).count, 2L);
+  }
+
+  void testScene(Tester t) {
+    this.initData();
+    this.maze.engine.metrics.enabled = true;
+    this.maze.makeScene();
+    this.maze.makeScene();
+    t.checkExpect(this.maze.engine.metrics.get(MazeMetrics.SCENE_TIME).count, 2L);
+    t.checkExpect(this.maze.engine.metrics.get(MazeMetrics.SCENE_TIME).last,
+        this.maze.lastSceneTime);
+    t.checkExpect(this.maze.engine.metrics.get(MazeMetrics.SCENE_ALLOCATED).count, 2L);
+  }
+
+  void testToJson(Tester t) {
+    this.initData();
+    t.checkExpect(this.on.toJson(), "{\n  \"enabled\": true,\n  \"metrics\": {}\n}");
+    this.on.record(MazeMetrics.EXPANDED, 4);
+    this.on.record(MazeMetrics.EXPANDED, 6);
+    this.on.record(MazeMetrics.PATH_LENGTH, 3);
+    t.checkExpect(this.on.toJson(), "{\n  \"enabled\": true,\n  \"metrics\": {\n"
+        + "    \"search.expanded\": {\"count\": 2, \"total\": 10, \"max\": 6, \"last\": 6, "
+        + "\"mean\": 5.0},\n"
+        + "    \"search.pathLength\": {\"count\": 1, \"total\": 3, \"max\": 3, \"last\": 3, "
+        + "\"mean\": 3.0}\n  }\n}");
+    this.on.clear();
+    t.checkExpect(this.on.get(MazeMetrics.EXPANDED), null);
+  }
+}
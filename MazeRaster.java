@@ -0,0 +1,172 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Random;
+import tester.*;
+import javalib.worldimages.*;
+
+// represents the set of nodes whose color changed since they were last drawn, each node is
+// listed at most once however many times it changes
+class DirtyCells {
+  int[] cells; // the positions of the changed nodes, the first count of them are in use
+  int count;
+  boolean[] marked; // whether each position is already listed
+
+  // constructor for DirtyCells over a board of the given number of nodes
+  DirtyCells(int size) {
+    this.cells = new int[size];
+    this.marked = new boolean[size];
+  }
+
+  // EFFECT: lists the node at the given position as changed
+  void mark(int pos) {
+    if (!this.marked[pos]) {
+      this.marked[pos] = true;
+      this.cells[this.count] = pos;
+      this.count++;
+    }
+  }
+
+  // EFFECT: forgets every changed node
+  void clear() {
+    for (int i = 0; i < this.count; i++) {
+      this.marked[this.cells[i]] = false;
+    }
+    this.count = 0;
+  }
+}
+
+// represents one picture of a whole board that is kept from frame to frame, so a frame only
+// has to redraw the nodes that changed instead of every node of the board
+class MazeRaster {
+  int length; // number of columns of nodes
+  int height; // number of rows of nodes
+  int size; // the size of a node in pixels
+  ComputedPixelImage image;
+
+  // constructor for MazeRaster, the picture starts out blank
+  MazeRaster(int length, int height, int size) {
+    this.length = length;
+    this.height = height;
+    this.size = size;
+    this.image = new ComputedPixelImage(length * size, height * size);
+  }
+
+  // EFFECT: draws every node of the board
+  void paintAll(ArrayList<ArrayList<Node>> board) {
+    for (int y = 0; y < this.height; y++) {
+      for (int x = 0; x < this.length; x++) {
+        this.paint(board.get(y).get(x));
+      }
+    }
+  }
+
+  // returns how many nodes were redrawn
+  // EFFECT: draws only the nodes listed as dirty, then forgets them
+  int repaint(ArrayList<ArrayList<Node>> board, DirtyCells dirty) {
+    int painted = dirty.count;
+    for (int i = 0; i < dirty.count; i++) {
+      int pos = dirty.cells[i];
+      this.paint(board.get(pos / this.length).get(pos % this.length));
+    }
+    dirty.clear();
+    return painted;
+  }
+
+  // EFFECT: fills in the square of the given node with its color and draws its standing walls
+  // along its own edges, so drawing one node never touches the pixels of another
+  void paint(Node node) {
+    int left = node.pos % this.length * this.size;
+    int top = node.pos / this.length * this.size;
+    int last = this.size - 1;
+    for (int dy = 0; dy < this.size; dy++) {
+      for (int dx = 0; dx < this.size; dx++) {
+        Color color = node.color;
+        if ((dx == 0 && node.left == null) || (dx == last && node.right == null)
+            || (dy == 0 && node.top == null) || (dy == last && node.bottom == null)) {
+          color = Color.BLACK;
+        }
+        this.image.setPixel(left + dx, top + dy, color);
+      }
+    }
+  }
+}
+
+// class for testing the DirtyCells and the MazeRaster
+class ExampleMazeRaster {
+  DirtyCells dirty;
+  Maze maze4;
+  Maze maze5;
+
+  // initializes the data for testing
+  void initData() {
+    this.dirty = new DirtyCells(10);
+    this.maze4 = new Maze(3, 3, new Random(5));
+    this.maze5 = new Maze(100, 60, new Random(5));
+  }
+
+  void testMark(Tester t) {
+    this.initData();
+    this.dirty.mark(3);
+    this.dirty.mark(7);
+    this.dirty.mark(3);
+    t.checkExpect(this.dirty.count, 2);
+    t.checkExpect(this.dirty.cells[1], 7);
+    this.dirty.clear();
+    t.checkExpect(this.dirty.count, 0);
+    t.checkExpect(this.dirty.marked[3], false);
+    this.dirty.mark(3);
+    t.checkExpect(this.dirty.count, 1);
+  }
+
+  void testPaint(Tester t) {
+    this.initData();
+    MazeRaster raster = new MazeRaster(3, 3, 10);
+    raster.paintAll(this.maze4.board);
+    // the first node has walls on its left and top and a passage to its right
+    t.checkExpect(raster.image.getPixel(0, 5), Color.BLACK);
+    t.checkExpect(raster.image.getPixel(5, 0), Color.BLACK);
+    t.checkExpect(raster.image.getPixel(5, 5), Color.WHITE);
+    t.checkExpect(raster.image.getPixel(9, 5), Color.WHITE);
+    // the last node is drawn in the bottom right square
+    t.checkExpect(raster.image.getPixel(25, 25), Color.WHITE);
+    t.checkExpect(raster.image.getPixel(29, 25), Color.BLACK);
+  }
+
+  void testRepaint(Tester t) {
+    this.initData();
+    MazeRaster raster = new MazeRaster(3, 3, 10);
+    raster.paintAll(this.maze4.board);
+    this.maze4.dirty.clear();
+    this.maze4.nodeAt(4).changeColor(Color.BLUE);
+    t.checkExpect(raster.repaint(this.maze4.board, this.maze4.dirty), 1);
+    t.checkExpect(raster.image.getPixel(15, 15), Color.BLUE);
+    t.checkExpect(raster.image.getPixel(5, 5), Color.WHITE);
+    t.checkExpect(raster.repaint(this.maze4.board, this.maze4.dirty), 0);
+  }
+
+  void testMakeScene(Tester t) {
+    this.initData();
+    // small boards are still drawn node by node
+    this.maze4.makeScene();
+    t.checkExpect(this.maze4.raster, null);
+
+    // big boards draw the whole raster on the first frame and only changes after that
+    this.maze5.makeScene();
+    t.checkExpect(this.maze5.raster.image.getPixel(5, 5), Color.GREEN);
+    t.checkExpect(this.maze5.dirty.count, 0);
+    this.maze5.onKeyEvent("b");
+    this.maze5.onTick();
+    this.maze5.onTick();
+    // the first node visited is the start, which stays green
+    t.checkExpect(this.maze5.dirty.count, 1);
+    this.maze5.makeScene();
+    t.checkExpect(this.maze5.dirty.count, 0);
+    Node second = this.maze5.visitedNodes.get(1);
+    t.checkExpect(this.maze5.raster.image.getPixel(second.pos % 100 * 10 + 5,
+        second.pos / 100 * 10 + 5), second.color);
+
+    // a new maze starts over with a new raster
+    this.maze5.newMaze();
+    t.checkExpect(this.maze5.raster, null);
+  }
+}
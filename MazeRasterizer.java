@@ -0,0 +1,268 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+import tester.*;
+
+// represents a way of drawing a WallGrid straight into the pixels of a BufferedImage, without
+// a World or any javalib images, so that mazes far too big for a scene can still be printed
+// every cell takes cellSize pixels each way with its top and left walls on its first row and
+// column, and one more row and column close off the bottom and right of the picture
+class MazeRasterizer {
+  static final int WHITE = 0xFFFFFF;
+  static final int BLACK = 0x000000;
+  static final int BLUE = 0x0000FF;
+  static final int YELLOW = 0xFFFF00;
+
+  int cellSize; // the size of a cell in pixels, walls included
+  int threads; // how many bands of rows are drawn at the same time
+
+  // constructor for MazeRasterizer
+  MazeRasterizer(int cellSize, int threads) {
+    if (cellSize < 2 || threads < 1) {
+      throw new IllegalArgumentException("Cells need at least 2 pixels and 1 thread");
+    }
+    this.cellSize = cellSize;
+    this.threads = threads;
+  }
+
+  // returns the colors of a sheet with the visited cells of the solution in blue and its path
+  // in yellow, like the Maze shows them once a search is done
+  static int[] solutionColors(int cells, MazeSolution solution) {
+    int[] colors = new int[cells];
+    Arrays.fill(colors, MazeRasterizer.WHITE);
+    for (int i = 0; i < solution.visitedOrder.length; i++) {
+      colors[solution.visitedOrder[i]] = MazeRasterizer.BLUE;
+    }
+    int[] path = solution.path();
+    for (int i = 0; i < path.length; i++) {
+      colors[path[i]] = MazeRasterizer.YELLOW;
+    }
+    return colors;
+  }
+
+  // returns the number of pixels in the picture of the given maze with cells of the given size
+  static long pixels(WallGrid grid, int cellSize) {
+    return ((long) grid.length * cellSize + 1) * ((long) grid.height * cellSize + 1);
+  }
+
+  // returns the picture of the given maze, with every cell in its color from cellColors, given
+  // as 0xRRGGBB, or in white if cellColors is null, a picture can hold at most
+  // Integer.MAX_VALUE pixels, so a maze too big for that at this cell size is refused with the
+  // largest cell size that would fit
+  BufferedImage rasterize(WallGrid grid, int[] cellColors) {
+    if (MazeRasterizer.pixels(grid, this.cellSize) > Integer.MAX_VALUE) {
+      int fits = this.cellSize - 1;
+      while (fits >= 2 && MazeRasterizer.pixels(grid, fits) > Integer.MAX_VALUE) {
+        fits--;
+      }
+      String largest = "no cell size fits";
+      if (fits >= 2) {
+        largest = "the largest cell size that fits is " + fits;
+      }
+      throw new IllegalArgumentException("A " + grid.length + " by " + grid.height
+          + " maze with cells of " + this.cellSize + " pixels is too big for one image, "
+          + largest);
+    }
+    int width = grid.length * this.cellSize + 1;
+    int height = grid.height * this.cellSize + 1;
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    // writes into the image's own pixels so no copy of the picture is ever made
+    int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+    if (this.threads == 1 || grid.height == 1) {
+      this.rasterizeRows(grid, cellColors, pixels, 0, grid.height);
+      return image;
+    }
+
+    // every band owns its own rows of pixels, so the bands never write to the same place
+    int bands = Math.min(this.threads, grid.height);
+    ExecutorService pool = Executors.newFixedThreadPool(bands);
+    try {
+      ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+      for (int band = 0; band < bands; band++) {
+        int fromRow = (int) ((long) grid.height * band / bands);
+        int toRow = (int) ((long) grid.height * (band + 1) / bands);
+        tasks.add(() -> {
+          this.rasterizeRows(grid, cellColors, pixels, fromRow, toRow);
+          return null;
+        });
+      }
+      for (Future<Object> done : pool.invokeAll(tasks)) {
+        done.get();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while drawing the maze", e);
+    }
+    catch (ExecutionException e) {
+      throw new IllegalStateException("A band of the maze failed to draw", e.getCause());
+    }
+    finally {
+      pool.shutdown();
+    }
+    return image;
+  }
+
+  // EFFECT: draws the rows of cells from fromRow up to but not including toRow into the pixels,
+  // and the closing bottom row of pixels if the last row of cells is among them
+  void rasterizeRows(WallGrid grid, int[] cellColors, int[] pixels, int fromRow, int toRow) {
+    int width = grid.length * this.cellSize + 1;
+    for (int y = fromRow; y < toRow; y++) {
+      int top = y * this.cellSize;
+      for (int x = 0; x < grid.length; x++) {
+        int pos = y * grid.length + x;
+        int left = x * this.cellSize;
+        int color = MazeRasterizer.WHITE;
+        if (cellColors != null) {
+          color = cellColors[pos];
+        }
+        boolean topWall = grid.top(pos) == -1;
+        boolean leftWall = grid.left(pos) == -1;
+
+        // the top row of the cell, its corner is always a wall so the walls meet up
+        int start = top * width + left;
+        pixels[start] = MazeRasterizer.BLACK;
+        int topColor = color;
+        if (topWall) {
+          topColor = MazeRasterizer.BLACK;
+        }
+        Arrays.fill(pixels, start + 1, start + this.cellSize, topColor);
+
+        // the rest of the rows of the cell
+        for (int row = 1; row < this.cellSize; row++) {
+          start = (top + row) * width + left;
+          if (leftWall) {
+            pixels[start] = MazeRasterizer.BLACK;
+          }
+          else {
+            pixels[start] = color;
+          }
+          Arrays.fill(pixels, start + 1, start + this.cellSize, color);
+        }
+      }
+      // the right edge of the picture
+      for (int row = 0; row < this.cellSize; row++) {
+        pixels[(top + row + 1) * width - 1] = MazeRasterizer.BLACK;
+      }
+    }
+    if (toRow == grid.height) {
+      int start = grid.height * this.cellSize * width;
+      Arrays.fill(pixels, start, start + width, MazeRasterizer.BLACK);
+    }
+  }
+
+  // EFFECT: writes the picture of the given maze to the given stream as a PNG
+  void writePng(WallGrid grid, int[] cellColors, OutputStream out) throws IOException {
+    ImageIO.write(this.rasterize(grid, cellColors), "png", out);
+  }
+
+  // EFFECT: writes the picture of the given maze to the given file as a PNG
+  void writePng(WallGrid grid, int[] cellColors, File file) throws IOException {
+    ImageIO.write(this.rasterize(grid, cellColors), "png", file);
+  }
+}
+
+// class for testing the MazeRasterizer
+class ExampleMazeRasterizer {
+  MazeRasterizer serial;
+  MazeRasterizer parallel;
+  WallGrid grid4;
+  WallGrid grid5;
+
+  // initializes the data for testing
+  void initData() {
+    this.serial = new MazeRasterizer(10, 1);
+    this.parallel = new MazeRasterizer(10, 4);
+    this.grid4 = new Maze(3, 3, new Random(5)).toWallGrid();
+    this.grid5 = WallGrid.generate(100, 60, new Random(5));
+  }
+
+  // returns the color of the given pixel without its alpha
+  int rgb(BufferedImage image, int x, int y) {
+    return image.getRGB(x, y) & 0xFFFFFF;
+  }
+
+  void testRasterize(Tester t) {
+    this.initData();
+    BufferedImage image = this.serial.rasterize(this.grid4, null);
+    t.checkExpect(image.getWidth(), 31);
+    t.checkExpect(image.getHeight(), 31);
+    // the first cell has walls on its left and top and a passage to its right
+    t.checkExpect(this.rgb(image, 0, 5), MazeRasterizer.BLACK);
+    t.checkExpect(this.rgb(image, 5, 0), MazeRasterizer.BLACK);
+    t.checkExpect(this.rgb(image, 5, 5), MazeRasterizer.WHITE);
+    t.checkExpect(this.rgb(image, 10, 5), MazeRasterizer.WHITE);
+    t.checkExpect(this.rgb(image, 10, 10), MazeRasterizer.BLACK);
+    // the edges of the picture are closed off
+    t.checkExpect(this.rgb(image, 30, 25), MazeRasterizer.BLACK);
+    t.checkExpect(this.rgb(image, 25, 30), MazeRasterizer.BLACK);
+  }
+
+  void testColors(Tester t) {
+    this.initData();
+    MazeSolution solution = new MazeEngine(this.grid4).solve("bfs");
+    int[] colors = MazeRasterizer.solutionColors(9, solution);
+    t.checkExpect(colors[4], MazeRasterizer.YELLOW);
+    BufferedImage image = this.serial.rasterize(this.grid4, colors);
+    t.checkExpect(this.rgb(image, 15, 15), MazeRasterizer.YELLOW);
+    t.checkExpect(this.rgb(image, 5, 5), MazeRasterizer.YELLOW);
+  }
+
+  void testParallel(Tester t) {
+    this.initData();
+    // drawing in bands gives exactly the same picture as drawing it all at once
+    BufferedImage one = this.serial.rasterize(this.grid5, null);
+    BufferedImage four = this.parallel.rasterize(this.grid5, null);
+    t.checkExpect(((DataBufferInt) four.getRaster().getDataBuffer()).getData(),
+        ((DataBufferInt) one.getRaster().getDataBuffer()).getData());
+    t.checkExpect(this.rgb(this.parallel.rasterize(new WallGrid(2, 1), null), 10, 5),
+        MazeRasterizer.BLACK);
+  }
+
+  void testWritePng(Tester t) {
+    this.initData();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      this.parallel.writePng(this.grid5, null, out);
+      BufferedImage read = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+      t.checkExpect(read.getWidth(), 1001);
+      t.checkExpect(read.getHeight(), 601);
+      t.checkExpect(this.rgb(read, 5, 5), MazeRasterizer.WHITE);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  void testTooBig(Tester t) {
+    // 4000 by 4000 cells of 12 pixels is 48001 pixels each way, 11 pixels is 44001
+    WallGrid big = new WallGrid(4000, 4000);
+    t.checkException(new IllegalArgumentException("A 4000 by 4000 maze with cells of 12 "
+        + "pixels is too big for one image, the largest cell size that fits is 11"),
+        new MazeRasterizer(12, 1), "rasterize", big, null);
+    t.checkExpect(MazeRasterizer.pixels(big, 11), 44001L * 44001);
+    t.checkException(new IllegalArgumentException("A 40000 by 40000 maze with cells of 2 "
+        + "pixels is too big for one image, no cell size fits"),
+        new MazeRasterizer(2, 1), "rasterize", new WallGrid(40000, 40000), null);
+  }
+
+  void testBadArguments(Tester t) {
+    t.checkConstructorException(
+        new IllegalArgumentException("Cells need at least 2 pixels and 1 thread"),
+        "MazeRasterizer", 1, 4);
+  }
+}
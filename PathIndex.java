@@ -0,0 +1,191 @@
+import java.awt.Color;
+import java.util.Random;
+import tester.*;
+
+// represents an index over a perfect maze that answers distance and path questions between
+// any two cells without searching, since a perfect maze is a tree there is exactly one path
+// between two cells and it goes through their lowest common ancestor
+// a braided maze has loops and is no tree, the index would silently answer with one of many
+// paths, so MazeEngine refuses to build one for it
+class PathIndex {
+  WallGrid grid;
+  int[] depth; // the number of moves from the root to each cell
+  int[][] up; // up[k][pos] is the cell 2^k moves closer to the root than pos, or the root
+
+  // constructor for PathIndex, hangs the tree from the given root cell
+  PathIndex(WallGrid grid, int root) {
+    this.grid = grid;
+    int cells = grid.cells();
+    this.depth = new int[cells];
+    int[] parent = new int[cells];
+
+    // breadth-first walk from the root, with the visit order doubling as the queue
+    int[] order = new int[cells];
+    boolean[] seen = new boolean[cells];
+    order[0] = root;
+    parent[root] = root;
+    seen[root] = true;
+    int head = 0;
+    int tail = 1;
+    int deepest = 0;
+    while (head < tail) {
+      int next = order[head];
+      head++;
+      int[] around = {grid.top(next), grid.bottom(next), grid.left(next), grid.right(next)};
+      for (int i = 0; i < around.length; i++) {
+        int neighbor = around[i];
+        if (neighbor != -1 && !seen[neighbor]) {
+          seen[neighbor] = true;
+          parent[neighbor] = next;
+          this.depth[neighbor] = this.depth[next] + 1;
+          deepest = Math.max(deepest, this.depth[neighbor]);
+          order[tail] = neighbor;
+          tail++;
+        }
+      }
+    }
+
+    // builds the jump tables, each level jumping twice as far as the one before it
+    int levels = 1;
+    while ((1 << levels) <= deepest) {
+      levels++;
+    }
+    this.up = new int[levels][];
+    this.up[0] = parent;
+    for (int k = 1; k < levels; k++) {
+      int[] half = this.up[k - 1];
+      int[] jump = new int[cells];
+      for (int pos = 0; pos < cells; pos++) {
+        jump[pos] = half[half[pos]];
+      }
+      this.up[k] = jump;
+    }
+  }
+
+  // returns the cell the given number of moves closer to the root than pos
+  int ancestor(int pos, int moves) {
+    int current = pos;
+    for (int k = 0; moves > 0; k++) {
+      if ((moves & 1) != 0) {
+        current = this.up[k][current];
+      }
+      moves >>= 1;
+    }
+    return current;
+  }
+
+  // returns the deepest cell that both a and b have to go through to reach the root
+  int lowestCommonAncestor(int a, int b) {
+    int lower = a;
+    int higher = b;
+    if (this.depth[lower] < this.depth[higher]) {
+      lower = b;
+      higher = a;
+    }
+    lower = this.ancestor(lower, this.depth[lower] - this.depth[higher]);
+    if (lower == higher) {
+      return lower;
+    }
+    for (int k = this.up.length - 1; k >= 0; k--) {
+      if (this.up[k][lower] != this.up[k][higher]) {
+        lower = this.up[k][lower];
+        higher = this.up[k][higher];
+      }
+    }
+    return this.up[0][lower];
+  }
+
+  // returns the number of moves on the path between a and b
+  int distance(int a, int b) {
+    return this.depth[a] + this.depth[b] - 2 * this.depth[this.lowestCommonAncestor(a, b)];
+  }
+
+  // returns the positions of the cells on the path from a to b, both included
+  int[] path(int a, int b) {
+    int meet = this.lowestCommonAncestor(a, b);
+    int[] cells = new int[this.depth[a] + this.depth[b] - 2 * this.depth[meet] + 1];
+
+    // climbs from a to the meeting cell filling from the front, then from b filling from the back
+    int index = 0;
+    for (int current = a; current != meet; current = this.up[0][current]) {
+      cells[index] = current;
+      index++;
+    }
+    cells[index] = meet;
+    int back = cells.length - 1;
+    for (int current = b; current != meet; current = this.up[0][current]) {
+      cells[back] = current;
+      back--;
+    }
+    return cells;
+  }
+}
+
+// class for testing the PathIndex
+class ExamplePathIndex {
+  Maze maze4;
+  Maze maze5;
+  PathIndex index4;
+  PathIndex index5;
+
+  // initializes the data for testing
+  void initData() {
+    this.maze4 = new Maze(3, 3, new Random(5));
+    this.maze5 = new Maze(100, 60, new Random(5));
+    this.index4 = this.maze4.pathIndex();
+    this.index5 = this.maze5.pathIndex();
+  }
+
+  void testDepth(Tester t) {
+    this.initData();
+    t.checkExpect(this.index4.depth[0], 0);
+    t.checkExpect(this.index4.depth[1], 1);
+    t.checkExpect(this.index4.depth[8], 4);
+    t.checkExpect(this.index4.up[0][0], 0);
+    t.checkExpect(this.index4.up[0][4], 1);
+  }
+
+  void testAncestor(Tester t) {
+    this.initData();
+    t.checkExpect(this.index4.ancestor(8, 0), 8);
+    t.checkExpect(this.index4.ancestor(8, 1), 5);
+    t.checkExpect(this.index4.ancestor(8, 3), 1);
+    t.checkExpect(this.index4.ancestor(8, 4), 0);
+  }
+
+  void testLowestCommonAncestor(Tester t) {
+    this.initData();
+    t.checkExpect(this.index4.lowestCommonAncestor(8, 0), 0);
+    t.checkExpect(this.index4.lowestCommonAncestor(8, 5), 5);
+    t.checkExpect(this.index4.lowestCommonAncestor(2, 8), 1);
+    t.checkExpect(this.index4.lowestCommonAncestor(6, 8), 4);
+  }
+
+  void testDistance(Tester t) {
+    this.initData();
+    t.checkExpect(this.index4.distance(0, 8), 4);
+    t.checkExpect(this.index4.distance(8, 0), 4);
+    t.checkExpect(this.index4.distance(6, 2), 4);
+    t.checkExpect(this.index4.distance(3, 3), 0);
+
+    // the distance to the end matches the path breadth-first search finds
+    this.maze5.onKeyEvent("b");
+    this.maze5.directPath();
+    int yellow = 0;
+    for (int pos = 0; pos < 6000; pos++) {
+      if (this.maze5.nodeAt(pos).color.equals(Color.YELLOW)) {
+        yellow++;
+      }
+    }
+    t.checkExpect(this.index5.distance(0, 5999), yellow);
+  }
+
+  void testPath(Tester t) {
+    this.initData();
+    t.checkExpect(this.index4.path(0, 8), new int[] {0, 1, 4, 5, 8});
+    t.checkExpect(this.index4.path(8, 0), new int[] {8, 5, 4, 1, 0});
+    t.checkExpect(this.index4.path(2, 6), new int[] {2, 1, 4, 3, 6});
+    t.checkExpect(this.index4.path(4, 4), new int[] {4});
+    t.checkExpect(this.index5.path(17, 4321).length, this.index5.distance(17, 4321) + 1);
+  }
+}
@@ -0,0 +1,243 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Random;
+import tester.*;
+
+// represents a MazeSolution boiled down to what it takes to replay it: the order the positions
+// were visited in and the path, the rest of cameFrom is left out since nothing but the path is
+// ever drawn from it
+class CachedSolution {
+  String algorithm;
+  int from;
+  int to;
+  int[] visitedOrder;
+  int[] path; // the positions from the start to the goal, empty if the goal was not found
+  int expanded;
+  int maxWorklist;
+  boolean found;
+  long cost;
+
+  // constructor for CachedSolution, keeping copies of the parts of the given solution that get
+  // replayed, so the solution can be changed afterwards without changing the cache
+  CachedSolution(MazeSolution solution) {
+    this.algorithm = solution.algorithm;
+    this.from = solution.from;
+    this.to = solution.to;
+    this.visitedOrder = solution.visitedOrder.clone();
+    this.path = solution.path();
+    this.expanded = solution.expanded;
+    this.maxWorklist = solution.maxWorklist;
+    this.found = solution.found;
+    this.cost = solution.cost;
+  }
+
+  // returns the solution this came from, carrying the path instead of a cameFrom, so a replay
+  // costs nothing that grows with the size of the maze, only with what it replays, the visited
+  // order is a copy so that changing a replay can not change the cached solution
+  MazeSolution toSolution() {
+    MazeSolution solution = new MazeSolution(this.algorithm, this.from, this.to,
+        this.visitedOrder.clone(), null, this.expanded, this.maxWorklist, this.found);
+    solution.path = this.path;
+    solution.cost = this.cost;
+    return solution;
+  }
+
+  // returns about how many bytes this solution takes up
+  long bytesUsed() {
+    return 64 + 4L * (this.visitedOrder.length + this.path.length);
+  }
+}
+
+// represents the solutions already found for mazes, so that asking for the same maze solved
+// the same way between the same cells again replays the solution instead of searching
+// mazes are told apart by the fingerprint of their passages, so two engines that generated
+// the same maze share their solutions however they got it
+// once the solutions take up more than maxBytes the least recently used ones are dropped
+class SolutionCache {
+  long maxBytes;
+  long bytesUsed; // bytes taken up by the cached solutions right now
+  LinkedHashMap<String, CachedSolution> solutions;
+  int hits; // lookups answered from the cache
+  int misses; // lookups that had to search
+  int evictions; // solutions dropped to make room
+
+  // constructor for SolutionCache, keeping at most maxBytes worth of solutions
+  SolutionCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+    // access order makes the first entry the least recently used one
+    this.solutions = new LinkedHashMap<String, CachedSolution>(16, 0.75f, true);
+  }
+
+  // returns the key a solution is cached under
+  static String key(long fingerprint, int from, int[] goals, String algorithm) {
+    return Long.toHexString(fingerprint) + " " + from + " " + Arrays.toString(goals) + " "
+        + algorithm;
+  }
+
+  // returns the cached solution of the maze with the given fingerprint from one position to
+  // the given goals by the given algorithm, or null if there is none
+  // EFFECT: counts the lookup as a hit or a miss
+  synchronized MazeSolution get(long fingerprint, int from, int[] goals, String algorithm) {
+    CachedSolution cached = this.solutions.get(SolutionCache.key(fingerprint, from, goals,
+        algorithm));
+    if (cached == null) {
+      this.misses++;
+      return null;
+    }
+    this.hits++;
+    return cached.toSolution();
+  }
+
+  // EFFECT: caches the given solution of the maze with the given fingerprint to the given
+  // goals, dropping the least recently used solutions until the cache fits in maxBytes again,
+  // a solution that is bigger than the whole cache is not kept at all
+  synchronized void put(long fingerprint, int[] goals, MazeSolution solution) {
+    CachedSolution cached = new CachedSolution(solution);
+    if (cached.bytesUsed() > this.maxBytes) {
+      return;
+    }
+    CachedSolution old = this.solutions.put(SolutionCache.key(fingerprint, solution.from,
+        goals, solution.algorithm), cached);
+    if (old != null) {
+      this.bytesUsed -= old.bytesUsed();
+    }
+    this.bytesUsed += cached.bytesUsed();
+    Iterator<CachedSolution> eldest = this.solutions.values().iterator();
+    while (this.bytesUsed > this.maxBytes) {
+      this.bytesUsed -= eldest.next().bytesUsed();
+      eldest.remove();
+      this.evictions++;
+    }
+  }
+
+  // returns how many solutions are cached right now
+  synchronized int size() {
+    return this.solutions.size();
+  }
+
+  // returns the share of lookups that were answered from the cache, or 0 if there were none
+  synchronized double hitRate() {
+    if (this.hits + this.misses == 0) {
+      return 0;
+    }
+    return (double) this.hits / (this.hits + this.misses);
+  }
+}
+
+// class for testing the CachedSolution and the SolutionCache
+class ExampleSolutionCache {
+  SolutionCache cache;
+  MazeEngine engine3;
+  MazeEngine engine5;
+  MazeEngine twin5;
+  int[] corner = {5999};
+
+  // initializes the data for testing
+  void initData() {
+    this.cache = new SolutionCache(1 << 20);
+    this.engine3 = new MazeEngine();
+    this.engine3.generate(3, 3, 5);
+    this.engine5 = new MazeEngine();
+    this.engine5.generate(100, 60, 5);
+    this.engine5.solutions = this.cache;
+    this.twin5 = new MazeEngine();
+    this.twin5.generate(100, 60, 5);
+    this.twin5.solutions = this.cache;
+  }
+
+  void testCachedSolution(Tester t) {
+    this.initData();
+    MazeSolution bfs = this.engine3.solve("bfs");
+    CachedSolution cached = new CachedSolution(bfs);
+    t.checkExpect(cached.path, new int[] {0, 1, 4, 5, 8});
+    t.checkExpect(cached.bytesUsed(), 64L + 4 * (bfs.visitedOrder.length + 5));
+    MazeSolution replayed = cached.toSolution();
+    t.checkExpect(replayed.path(), bfs.path());
+    t.checkExpect(replayed.visitedOrder, bfs.visitedOrder);
+    t.checkExpect(replayed.expanded, bfs.expanded);
+    // a replay carries the path and nothing the size of the maze
+    t.checkExpect(replayed.cameFrom, null);
+    replayed.path()[0] = 7;
+    t.checkExpect(cached.path[0], 0);
+    replayed.visitedOrder[0] = 7;
+    bfs.visitedOrder[1] = 7;
+    t.checkExpect(cached.visitedOrder[0], 0);
+    t.checkExpect(cached.visitedOrder[1] != 7, true);
+  }
+
+  void testHitsAndMisses(Tester t) {
+    this.initData();
+    MazeSolution first = this.engine5.solve("bfs");
+    t.checkExpect(this.cache.misses, 1);
+    t.checkExpect(this.cache.hits, 0);
+    // another engine with the same maze finds the solution already there
+    MazeSolution second = this.twin5.solve("bfs");
+    t.checkExpect(this.cache.hits, 1);
+    t.checkExpect(second.visitedOrder, first.visitedOrder);
+    t.checkExpect(second.path(), first.path());
+    t.checkExpect(this.twin5.lastSolution, second);
+    // a different algorithm or a different maze is a different solution
+    this.twin5.solve("dfs");
+    this.twin5.generate(100, 60, 6);
+    this.twin5.solve("bfs");
+    t.checkExpect(this.cache.misses, 3);
+    t.checkExpect(this.cache.size(), 3);
+    t.checkInexact(this.cache.hitRate(), 0.25, 0.001);
+    t.checkExpect(new SolutionCache(10).hitRate(), 0.0);
+    // the maze is only hashed once however often it is solved, so like the path index the
+    // fingerprint only changes with a new maze and not with changes made to the grid itself
+    t.checkExpect(this.engine5.fingerprint, this.engine5.grid.fingerprint());
+    this.engine5.grid.bits[0] ^= 1;
+    this.engine5.solve("bfs");
+    t.checkExpect(this.cache.hits, 2);
+    this.engine5.grid.bits[0] ^= 1;
+    this.twin5.generate(100, 60, 5);
+    t.checkExpect(this.twin5.fingerprint, null);
+  }
+
+  void testEviction(Tester t) {
+    this.initData();
+    MazeSolution bfs = this.engine5.solve("bfs");
+    long bytes = new CachedSolution(bfs).bytesUsed();
+    // room for a single breadth first solution of this maze
+    SolutionCache small = new SolutionCache(bytes + bytes / 2);
+    small.put(this.engine5.grid.fingerprint(), this.corner, bfs);
+    small.put(this.engine5.grid.fingerprint(), this.corner, this.engine5.solve("astar"));
+    t.checkExpect(small.size(), 1);
+    t.checkExpect(small.evictions, 1);
+    t.checkExpect(small.get(this.engine5.grid.fingerprint(), 0, this.corner, "bfs"), null);
+    t.checkExpect(small.bytesUsed <= small.maxBytes, true);
+    // putting the same solution again replaces it instead of counting it twice
+    small.put(this.engine5.grid.fingerprint(), this.corner, this.engine5.solve("astar"));
+    t.checkExpect(small.size(), 1);
+    t.checkExpect(small.evictions, 1);
+    // a solution bigger than the whole cache is never kept
+    SolutionCache tiny = new SolutionCache(100);
+    tiny.put(this.engine5.grid.fingerprint(), this.corner, bfs);
+    t.checkExpect(tiny.size(), 0);
+    t.checkExpect(tiny.bytesUsed, 0L);
+  }
+
+  void testReplayAnimates(Tester t) {
+    this.initData();
+    Maze searched = new Maze(30, 20, new Random(5));
+    Maze replayed = new Maze(30, 20, new Random(5));
+    searched.engine.solutions = this.cache;
+    replayed.engine.solutions = this.cache;
+    searched.onKeyEvent("b");
+    replayed.onKeyEvent("b");
+    t.checkExpect(this.cache.hits, 1);
+    // the replay shows the same nodes in the same order and ends on the same path
+    for (int i = 0; i < 1000; i++) {
+      searched.onTick();
+      replayed.onTick();
+      if (i == 50) {
+        t.checkExpect(replayed.cells, searched.cells);
+      }
+    }
+    t.checkExpect(replayed.solved, true);
+    t.checkExpect(replayed.cells, searched.cells);
+    t.checkExpect(replayed.solveStatistics().wrongMoves, searched.solveStatistics().wrongMoves);
+  }
+}
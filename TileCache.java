@@ -0,0 +1,87 @@
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.Random;
+import tester.*;
+import javalib.worldimages.*;
+
+// represents the images of the nodes drawn so far, a node's image only depends on which of its
+// walls are standing, its color and its size, so every node that looks the same can share one
+// image instead of building a new stack of overlays on every frame
+class TileCache {
+  // the images drawn so far, under the key from TileCache.key
+  HashMap<Long, WorldImage> images = new HashMap<Long, WorldImage>();
+
+  // returns the key of the image of the given node, its color in the top half and its size and
+  // wall mask in the bottom half
+  static long key(Node node) {
+    return ((long) node.color.getRGB() << 32) | ((long) node.size << 4) | node.wallMask();
+  }
+
+  // returns the image of the given node, the same one drawNode would give
+  // EFFECT: draws and remembers the image the first time a node looks this way
+  WorldImage draw(Node node) {
+    long key = TileCache.key(node);
+    WorldImage image = this.images.get(key);
+    if (image == null) {
+      image = node.drawNode();
+      this.images.put(key, image);
+    }
+    return image;
+  }
+
+  // returns how many different images have been drawn
+  int size() {
+    return this.images.size();
+  }
+}
+
+// class for testing the TileCache
+class ExampleTileCache {
+  TileCache tiles;
+  Node node1;
+  Node node2;
+  Maze maze2;
+
+  // initializes the data for testing
+  void initData() {
+    this.tiles = new TileCache();
+    this.node1 = new Node(1);
+    this.node2 = new Node(2);
+    this.maze2 = new Maze(40, 40, new Random(5));
+  }
+
+  void testDraw(Tester t) {
+    this.initData();
+    t.checkExpect(this.tiles.draw(this.node1), this.node1.drawNode());
+    // nodes that look the same share one image
+    t.checkExpect(this.tiles.draw(this.node1) == this.tiles.draw(this.node2), true);
+    t.checkExpect(this.tiles.size(), 1);
+    this.node2.changeColor(Color.BLUE);
+    t.checkExpect(this.tiles.draw(this.node2), this.node2.drawNode());
+    t.checkExpect(this.tiles.size(), 2);
+    this.node2.changeRight(this.node1);
+    t.checkExpect(this.tiles.draw(this.node2), this.node2.drawNode());
+    t.checkExpect(this.tiles.size(), 3);
+  }
+
+  void testKey(Tester t) {
+    this.initData();
+    t.checkExpect(TileCache.key(this.node1), TileCache.key(this.node2));
+    this.node2.changeColor(Color.YELLOW);
+    t.checkFail(TileCache.key(this.node1), TileCache.key(this.node2));
+  }
+
+  void testMakeScene(Tester t) {
+    this.initData();
+    // a whole board of 1600 nodes only needs one image per wall mask and color
+    this.maze2.makeScene();
+    t.checkRange(this.maze2.tiles.size(), 1, 16 * 3 + 1);
+    int drawn = this.maze2.tiles.size();
+    this.maze2.makeScene();
+    t.checkExpect(this.maze2.tiles.size(), drawn);
+    for (int pos = 0; pos < 1600; pos += 37) {
+      Node node = this.maze2.nodeAt(pos);
+      t.checkExpect(this.maze2.tiles.draw(node), node.drawNode());
+    }
+  }
+}
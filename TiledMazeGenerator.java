@@ -0,0 +1,268 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import tester.*;
+
+// represents a generator that splits one huge maze into square tiles, runs Kruskal's algorithm
+// inside every tile at the same time, then joins the finished tiles into one perfect maze
+class TiledMazeGenerator {
+  int tileSize; // number of rows and columns in a tile, the tiles on the far edges may be smaller
+  int threads;
+
+  // constructor for TiledMazeGenerator
+  TiledMazeGenerator(int tileSize, int threads) {
+    if (tileSize < 1 || threads < 1) {
+      throw new IllegalArgumentException("Tiles and threads must be at least 1");
+    }
+    this.tileSize = tileSize;
+    this.threads = threads;
+  }
+
+  // returns a perfect maze of the given size, the same one for the same seed and tile size no
+  // matter how many threads made it, cell positions are longs along the way so the maze can
+  // have more than Integer.MAX_VALUE cells, as long as its packed passages fit in one array
+  WallGrid generate(int width, int height, long seed) {
+    WallGrid grid = new WallGrid(width, height);
+    int tilesAcross = (width + this.tileSize - 1) / this.tileSize;
+    int tilesDown = (height + this.tileSize - 1) / this.tileSize;
+
+    // every tile gets its own seed up front, so the order the tiles run in does not matter
+    SplittableRandom rand = new SplittableRandom(seed);
+    long[] tileSeeds = new long[tilesAcross * tilesDown];
+    for (int i = 0; i < tileSeeds.length; i++) {
+      tileSeeds[i] = rand.nextLong();
+    }
+
+    // builds a spanning tree inside every tile, each tile copying its passages in when done
+    ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+    try {
+      ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+      for (int tile = 0; tile < tileSeeds.length; tile++) {
+        int x = tile % tilesAcross * this.tileSize;
+        int y = tile / tilesAcross * this.tileSize;
+        long tileSeed = tileSeeds[tile];
+        tasks.add(() -> {
+          this.fillTile(grid, x, y, tileSeed);
+          return null;
+        });
+      }
+      for (Future<Object> done : pool.invokeAll(tasks)) {
+        done.get();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while generating tiles", e);
+    }
+    catch (ExecutionException e) {
+      throw new IllegalStateException("A tile failed to generate", e.getCause());
+    }
+    finally {
+      pool.shutdown();
+    }
+
+    this.joinTiles(grid, tilesAcross, tilesDown, rand);
+    return grid;
+  }
+
+  // EFFECT: generates the tile whose top left cell is at x, y and opens its passages in grid
+  void fillTile(WallGrid grid, int x, int y, long tileSeed) {
+    int tileLength = Math.min(this.tileSize, grid.length - x);
+    int tileHeight = Math.min(this.tileSize, grid.height - y);
+    WallGrid tile = WallGrid.generate(tileLength, tileHeight, new SplittableRandom(tileSeed));
+
+    // every row of the tile is a run of bits of its own in the packed passages, only the longs
+    // at either end of a run can be shared with the tile beside it, so only those are locked
+    for (int row = 0; row < tileHeight; row++) {
+      long start = (long) (y + row) * grid.length + x;
+      int firstWord = (int) (2 * start >>> 6);
+      int lastWord = (int) ((2 * (start + tileLength) - 1) >>> 6);
+      int index = firstWord;
+      long word = 0;
+      for (int column = 0; column < tileLength; column++) {
+        int pos = row * tileLength + column;
+        long bit = 2 * (start + column);
+        if ((int) (bit >>> 6) != index) {
+          this.openWord(grid, index, word, index == firstWord || index == lastWord);
+          index = (int) (bit >>> 6);
+          word = 0;
+        }
+        if (tile.right(pos) != -1) {
+          word |= 1L << bit;
+        }
+        if (tile.bottom(pos) != -1) {
+          word |= 1L << (bit + 1);
+        }
+      }
+      this.openWord(grid, index, word, index == firstWord || index == lastWord);
+    }
+  }
+
+  // EFFECT: opens the passages set in word in the long of the grid at the given index, taking
+  // the lock of the grid if another tile may be opening passages in the same long
+  void openWord(WallGrid grid, int index, long word, boolean shared) {
+    if (shared) {
+      synchronized (grid) {
+        grid.bits[index] |= word;
+      }
+    }
+    else {
+      grid.bits[index] |= word;
+    }
+  }
+
+  // EFFECT: opens one passage across the borders of just enough pairs of neighboring tiles to
+  // connect every tile, with Kruskal's algorithm over the tiles, since every tile is already
+  // connected inside only the cheapest crossing between two tiles could ever be kept
+  void joinTiles(WallGrid grid, int tilesAcross, int tilesDown, SplittableRandom rand) {
+    int tiles = tilesAcross * tilesDown;
+    int horizontal = tilesDown * (tilesAcross - 1);
+    int pairs = horizontal + (tilesDown - 1) * tilesAcross;
+
+    // draws a weight and a crossing cell for every pair of neighboring tiles
+    long[] weighted = new long[pairs];
+    long[] crossing = new long[pairs];
+    for (int pair = 0; pair < pairs; pair++) {
+      int tileA = this.firstTile(pair, horizontal, tilesAcross);
+      int x = tileA % tilesAcross * this.tileSize;
+      int y = tileA / tilesAcross * this.tileSize;
+      if (pair < horizontal) {
+        int rows = Math.min(this.tileSize, grid.height - y);
+        crossing[pair] = (long) (y + rand.nextInt(rows)) * grid.length + x + this.tileSize - 1;
+      }
+      else {
+        int columns = Math.min(this.tileSize, grid.length - x);
+        crossing[pair] = (long) (y + this.tileSize - 1) * grid.length + x
+            + rand.nextInt(columns);
+      }
+      weighted[pair] = ((long) rand.nextInt(1 << 30) << 32) | pair;
+    }
+    Arrays.sort(weighted);
+
+    DisjointSet representatives = new DisjointSet(tiles);
+    for (int i = 0; i < pairs; i++) {
+      int pair = (int) weighted[i];
+      int tileA = this.firstTile(pair, horizontal, tilesAcross);
+      int tileB = tileA + 1;
+      int across = 1;
+      if (pair >= horizontal) {
+        tileB = tileA + tilesAcross;
+        across = grid.length;
+      }
+      if (representatives.union(tileA, tileB)) {
+        grid.connect(crossing[pair], crossing[pair] + across);
+      }
+    }
+  }
+
+  // returns the top or left tile of the given pair of neighboring tiles, the pairs side by
+  // side come first row by row and then the pairs one above the other
+  int firstTile(int pair, int horizontal, int tilesAcross) {
+    if (pair < horizontal) {
+      return pair / (tilesAcross - 1) * tilesAcross + pair % (tilesAcross - 1);
+    }
+    return pair - horizontal;
+  }
+}
+
+// class for testing the TiledMazeGenerator
+class ExampleTiledMazeGenerator {
+  TiledMazeGenerator small;
+  TiledMazeGenerator oneThread;
+  TiledMazeGenerator fourThreads;
+
+  // initializes the data for testing
+  void initData() {
+    this.small = new TiledMazeGenerator(3, 2);
+    this.oneThread = new TiledMazeGenerator(16, 1);
+    this.fourThreads = new TiledMazeGenerator(16, 4);
+  }
+
+  // returns the number of open passages in the grid
+  int passages(WallGrid grid) {
+    int open = 0;
+    for (int pos = 0; pos < grid.cells(); pos++) {
+      if (grid.right(pos) != -1) {
+        open++;
+      }
+      if (grid.bottom(pos) != -1) {
+        open++;
+      }
+    }
+    return open;
+  }
+
+  // returns the number of cells that can be reached from the top left cell of the grid
+  int reachable(WallGrid grid) {
+    return new MazeEngine(grid).search("bfs", 0, -1, new IntQueue(16)).expanded;
+  }
+
+  void testPerfectMaze(Tester t) {
+    this.initData();
+    // a perfect maze has every cell reachable and exactly one fewer passage than cells
+    WallGrid grid1 = this.fourThreads.generate(100, 70, 9);
+    t.checkExpect(this.passages(grid1), 6999);
+    t.checkExpect(this.reachable(grid1), 7000);
+    WallGrid grid2 = this.small.generate(10, 7, 3);
+    t.checkExpect(this.passages(grid2), 69);
+    t.checkExpect(this.reachable(grid2), 70);
+    WallGrid grid3 = this.small.generate(1, 1, 3);
+    t.checkExpect(this.passages(grid3), 0);
+  }
+
+  void testDeterministic(Tester t) {
+    this.initData();
+    t.checkExpect(this.oneThread.generate(100, 70, 9).bits,
+        this.fourThreads.generate(100, 70, 9).bits);
+    t.checkExpect(this.fourThreads.generate(100, 70, 9).bits,
+        this.fourThreads.generate(100, 70, 9).bits);
+    t.checkFail(this.fourThreads.generate(100, 70, 9).bits,
+        this.fourThreads.generate(100, 70, 10).bits);
+  }
+
+  void testFillTile(Tester t) {
+    this.initData();
+    // rows of 37 cells do not line up with the longs, so tiles share the longs at their sides
+    WallGrid copied = new WallGrid(37, 23);
+    WallGrid connected = new WallGrid(37, 23);
+    for (int y = 0; y < 23; y += 16) {
+      for (int x = 0; x < 37; x += 16) {
+        this.fourThreads.fillTile(copied, x, y, x * 100 + y);
+        int tileLength = Math.min(16, 37 - x);
+        WallGrid tile = WallGrid.generate(tileLength, Math.min(16, 23 - y),
+            new SplittableRandom(x * 100 + y));
+        for (int pos = 0; pos < tile.cells(); pos++) {
+          int global = (y + pos / tileLength) * 37 + x + pos % tileLength;
+          if (tile.right(pos) != -1) {
+            connected.connect(global, global + 1);
+          }
+          if (tile.bottom(pos) != -1) {
+            connected.connect(global, global + 37);
+          }
+        }
+      }
+    }
+    t.checkExpect(copied.bits, connected.bits);
+  }
+
+  void testFirstTile(Tester t) {
+    this.initData();
+    // a 3 by 2 arrangement of tiles has 4 pairs side by side and 3 pairs one above the other
+    t.checkExpect(this.small.firstTile(0, 4, 3), 0);
+    t.checkExpect(this.small.firstTile(1, 4, 3), 1);
+    t.checkExpect(this.small.firstTile(2, 4, 3), 3);
+    t.checkExpect(this.small.firstTile(4, 4, 3), 0);
+    t.checkExpect(this.small.firstTile(6, 4, 3), 2);
+  }
+
+  void testBadArguments(Tester t) {
+    t.checkConstructorException(
+        new IllegalArgumentException("Tiles and threads must be at least 1"),
+        "TiledMazeGenerator", 0, 4);
+  }
+}
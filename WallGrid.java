@@ -0,0 +1,429 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+import tester.*;
+
+// represents a maze stored as two bits per cell, one telling if the passage to the right of
+// the cell is open and one telling if the passage below the cell is open, packed 32 cells to
+// a long so that very big mazes take up a fraction of a byte per cell
+class WallGrid {
+  int length; // number of columns in the maze
+  int height; // number of rows in the maze
+  long[] bits; // the packed passages, bit 2 * pos is right and bit 2 * pos + 1 is bottom
+  // the cost of moving through each passage, indexed the same way as the bits, or null if
+  // every move costs 1
+  short[] weights = null;
+
+  // constructor for WallGrid, every cell starts out with all four of its walls
+  WallGrid(int length, int height) {
+    long words = ((long) length * height * 2 + 63) / 64;
+    if (length < 0 || height < 0 || words > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A maze of " + length + " by " + height
+          + " cells does not fit in a WallGrid");
+    }
+    this.length = length;
+    this.height = height;
+    this.bits = new long[(int) words];
+  }
+
+  // builds the WallGrid with the passages of the given edges opened
+  static WallGrid fromEdges(int length, int height, ArrayList<Edge> edges) {
+    WallGrid grid = new WallGrid(length, height);
+    for (int i = 0; i < edges.size(); i++) {
+      grid.connect(edges.get(i).node1.pos, edges.get(i).node2.pos);
+    }
+    return grid;
+  }
+
+  // builds the same maze as new Maze(length, height, rand) straight into a WallGrid, without
+  // creating any Node or Edge objects along the way
+  static WallGrid generate(int length, int height, RandomGenerator rand) {
+    return WallGrid.generate(length, height, rand, new MazeMetrics(false));
+  }
+
+  // builds the maze the same way, recording how many edges Kruskal's algorithm looked at and
+  // how many of them it kept in the given metrics
+  static WallGrid generate(int length, int height, RandomGenerator rand, MazeMetrics metrics) {
+    return WallGrid.generate(length, height, rand, 0, metrics);
+  }
+
+  // builds the same tree, then opens the given share of the edges Kruskal's algorithm left out
+  // again, lightest first, which braids the maze with loops so there is more than one way
+  // between its cells, a braided maze keeps the weight of every edge as the cost of its passage
+  static WallGrid generate(int length, int height, RandomGenerator rand, double braid,
+      MazeMetrics metrics) {
+    return WallGrid.generate(length, height, rand, braid, metrics, null);
+  }
+
+  // builds the maze the same way, recording every edge it opens in kept, in the order it opens
+  // them and with the weights drawn for them, unless kept is null
+  static WallGrid generate(int length, int height, RandomGenerator rand, double braid,
+      MazeMetrics metrics, KeptEdges kept) {
+    if (braid < 0 || braid > 1) {
+      throw new IllegalArgumentException("The share of edges to braid has to be in [0, 1]");
+    }
+    WallGrid grid = new WallGrid(length, height);
+    int cells = length * height;
+    int horizontal = height * (length - 1);
+    int edgeCount = horizontal + (height - 1) * length;
+
+    // draws the weights in the same order the Maze does: the horizontal edges row by row,
+    // then the vertical edges row by row
+    short[] weights = new short[edgeCount];
+    for (int i = 0; i < edgeCount; i++) {
+      weights[i] = (short) rand.nextInt(1000);
+    }
+
+    // counting sort on the weights, which keeps edges of equal weight in the order they were
+    // drawn, just like the stable sort the Maze uses
+    int[] starts = new int[1001];
+    for (int i = 0; i < edgeCount; i++) {
+      starts[weights[i] + 1]++;
+    }
+    for (int w = 1; w <= 1000; w++) {
+      starts[w] += starts[w - 1];
+    }
+    int[] sorted = new int[edgeCount];
+    for (int i = 0; i < edgeCount; i++) {
+      sorted[starts[weights[i]]] = i;
+      starts[weights[i]]++;
+    }
+
+    // Kruskal's algorithm over the sorted edge ids
+    DisjointSet representatives = new DisjointSet(cells);
+    int accepted = 0;
+    int examined = 0;
+    while (examined < edgeCount && accepted < cells - 1) {
+      int id = sorted[examined];
+      examined++;
+      int from = WallGrid.edgeFrom(id, length, horizontal);
+      int to = WallGrid.edgeTo(id, length, horizontal);
+      if (representatives.union(from, to)) {
+        grid.connect(from, to);
+        accepted++;
+        if (kept != null) {
+          kept.add(from, to, weights[id]);
+        }
+      }
+      // else, we're discarding the edge
+    }
+    metrics.record(MazeMetrics.EDGES_EXAMINED, examined);
+    metrics.record(MazeMetrics.EDGES_ACCEPTED, accepted);
+
+    if (braid > 0) {
+      grid.weights = new short[2 * cells];
+      int braided = (int) Math.round(braid * (edgeCount - accepted));
+      int reopen = braided;
+      for (int i = 0; i < edgeCount; i++) {
+        int id = sorted[i];
+        int from = WallGrid.edgeFrom(id, length, horizontal);
+        int to = WallGrid.edgeTo(id, length, horizontal);
+        long bit = WallGrid.passageBit(from, to, length);
+        if (!grid.isOpen(bit) && reopen > 0) {
+          grid.connect(from, to);
+          reopen--;
+          if (kept != null) {
+            kept.add(from, to, weights[id]);
+          }
+        }
+        grid.weights[(int) bit] = weights[id];
+      }
+      metrics.record(MazeMetrics.EDGES_BRAIDED, braided);
+    }
+    return grid;
+  }
+
+  // returns the first of the two cells joined by the edge of the given id, where the first
+  // horizontal ids are the edges between neighbors in a row, row by row, and the rest are the
+  // edges between neighbors in a column
+  static int edgeFrom(int id, int length, int horizontal) {
+    if (id < horizontal) {
+      return id / (length - 1) * length + id % (length - 1);
+    }
+    return id - horizontal;
+  }
+
+  // returns the second of the two cells joined by the edge of the given id
+  static int edgeTo(int id, int length, int horizontal) {
+    if (id < horizontal) {
+      return WallGrid.edgeFrom(id, length, horizontal) + 1;
+    }
+    return id - horizontal + length;
+  }
+
+  // returns the bit of the packed passages for the passage between two neighboring cells,
+  // which takes long positions so a grid of more than Integer.MAX_VALUE cells can be filled
+  static long passageBit(long a, long b, int length) {
+    long bit = 2L * Math.min(a, b);
+    // in a single column the cells below are also one apart, so only the row length tells
+    if (Math.abs(a - b) == length) {
+      bit++;
+    }
+    return bit;
+  }
+
+  // returns the number of cells in the maze, which only fits in an int for mazes of up to
+  // Integer.MAX_VALUE cells, bigger ones are only made by the TiledMazeGenerator and are read
+  // back through a MappedMaze
+  int cells() {
+    return this.length * this.height;
+  }
+
+  // returns whether the given bit of the packed passages is set
+  boolean isOpen(long bit) {
+    return (this.bits[(int) (bit >>> 6)] & (1L << bit)) != 0;
+  }
+
+  // EFFECT: opens the passage between the two given neighboring cells
+  void connect(long a, long b) {
+    long bit = WallGrid.passageBit(a, b, this.length);
+    this.bits[(int) (bit >>> 6)] |= 1L << bit;
+  }
+
+  // returns the cost of moving between the two given neighboring cells
+  int weight(int a, int b) {
+    if (this.weights == null) {
+      return 1;
+    }
+    return this.weights[(int) WallGrid.passageBit(a, b, this.length)];
+  }
+
+  // returns the position of the cell to the right of the given one, or -1 if there is a wall
+  int right(int pos) {
+    if (this.isOpen(2L * pos)) {
+      return pos + 1;
+    }
+    return -1;
+  }
+
+  // returns the position of the cell below the given one, or -1 if there is a wall
+  int bottom(int pos) {
+    if (this.isOpen(2L * pos + 1)) {
+      return pos + this.length;
+    }
+    return -1;
+  }
+
+  // returns the position of the cell to the left of the given one, or -1 if there is a wall
+  int left(int pos) {
+    if (pos % this.length != 0 && this.isOpen(2L * (pos - 1))) {
+      return pos - 1;
+    }
+    return -1;
+  }
+
+  // returns the position of the cell above the given one, or -1 if there is a wall
+  int top(int pos) {
+    if (pos >= this.length && this.isOpen(2L * (pos - this.length) + 1)) {
+      return pos - this.length;
+    }
+    return -1;
+  }
+
+  // returns a hash of the size and every passage of the maze, mixed with the constants of
+  // SplitMix64, so that mazes with the same passages have the same fingerprint however they
+  // were made and different mazes almost never do
+  long fingerprint() {
+    long hash = ((long) this.length << 32) | this.height;
+    for (int i = 0; i < this.bits.length; i++) {
+      hash = (hash ^ this.bits[i]) * 0xBF58476D1CE4E5B9L;
+      hash = (hash ^ (hash >>> 31)) * 0x94D049BB133111EBL;
+    }
+    // weighted solutions depend on the weights too
+    if (this.weights != null) {
+      for (int i = 0; i < this.weights.length; i++) {
+        hash = (hash ^ this.weights[i]) * 0xBF58476D1CE4E5B9L;
+      }
+      hash = (hash ^ (hash >>> 31)) * 0x94D049BB133111EBL;
+    }
+    return hash ^ (hash >>> 29);
+  }
+
+  // returns how many bytes the packed passages take up
+  long bytesUsed() {
+    return this.bits.length * 8L;
+  }
+}
+
+// represents the edges a generation opened, in the order it opened them, along with the
+// weights drawn for them, which is what the Maze shows as its edgesInTheMaze
+class KeptEdges {
+  int[] from; // the first cell of each edge
+  int[] to; // the second cell of each edge
+  int[] weights; // the weight drawn for each edge
+  int count = 0;
+
+  // constructor for KeptEdges with room for a few edges before growing
+  KeptEdges() {
+    this.from = new int[16];
+    this.to = new int[16];
+    this.weights = new int[16];
+  }
+
+  // EFFECT: records the edge between the two cells with the given weight after the others
+  void add(int from, int to, int weight) {
+    if (this.count == this.from.length) {
+      this.from = Arrays.copyOf(this.from, this.count * 2);
+      this.to = Arrays.copyOf(this.to, this.count * 2);
+      this.weights = Arrays.copyOf(this.weights, this.count * 2);
+    }
+    this.from[this.count] = from;
+    this.to[this.count] = to;
+    this.weights[this.count] = weight;
+    this.count++;
+  }
+}
+
+// class for testing the WallGrid
+class ExampleWallGrid {
+  WallGrid grid1;
+  WallGrid grid2;
+  Maze maze1;
+  Maze maze5;
+
+  // initializes the data for testing
+  void initData() {
+    this.grid1 = new WallGrid(3, 2);
+    this.grid2 = new WallGrid(1000, 1000);
+    this.maze1 = new Maze(5, 5, new Random(5));
+    this.maze5 = new Maze(100, 60, new Random(5));
+  }
+
+  void testConnect(Tester t) {
+    this.initData();
+    t.checkExpect(this.grid1.right(0), -1);
+    t.checkExpect(this.grid1.bottom(0), -1);
+    this.grid1.connect(1, 0);
+    this.grid1.connect(1, 4);
+    t.checkExpect(this.grid1.right(0), 1);
+    t.checkExpect(this.grid1.left(1), 0);
+    t.checkExpect(this.grid1.bottom(1), 4);
+    t.checkExpect(this.grid1.top(4), 1);
+    t.checkExpect(this.grid1.right(1), -1);
+    t.checkExpect(this.grid1.left(0), -1);
+    t.checkExpect(this.grid1.top(1), -1);
+  }
+
+  void testEdgesOfTheBoard(Tester t) {
+    this.initData();
+    // the right passage of the last cell in a row never leads to the next row
+    this.grid1.connect(3, 4);
+    t.checkExpect(this.grid1.left(3), -1);
+    t.checkExpect(this.grid1.right(2), -1);
+    t.checkExpect(this.grid1.bottom(5), -1);
+
+    // in a single column every passage goes down
+    WallGrid column = new WallGrid(1, 3);
+    column.connect(0, 1);
+    t.checkExpect(column.bottom(0), 1);
+    t.checkExpect(column.right(0), -1);
+  }
+
+  void testGenerate(Tester t) {
+    this.initData();
+    // generating straight into the grid gives the same maze as the Maze world shows
+    t.checkExpect(WallGrid.generate(5, 5, new Random(5)).bits, this.maze1.toWallGrid().bits);
+    t.checkExpect(WallGrid.generate(100, 60, new Random(5)).bits, this.maze5.toWallGrid().bits);
+    t.checkExpect(WallGrid.generate(1, 1, new Random(5)).bits, new long[] {0});
+  }
+
+  void testFromEdges(Tester t) {
+    this.initData();
+    WallGrid grid = WallGrid.fromEdges(5, 5, this.maze1.edgesInTheMaze);
+    t.checkExpect(grid.right(0), this.maze1.nodeAt(1).pos);
+    t.checkExpect(grid.left(1), this.maze1.nodeAt(0).pos);
+  }
+
+  // returns the number of open passages in the given grid
+  int passages(WallGrid grid) {
+    int open = 0;
+    for (int pos = 0; pos < grid.cells(); pos++) {
+      if (grid.right(pos) != -1) {
+        open++;
+      }
+      if (grid.bottom(pos) != -1) {
+        open++;
+      }
+    }
+    return open;
+  }
+
+  void testBraid(Tester t) {
+    this.initData();
+    WallGrid tree = WallGrid.generate(100, 60, new Random(5));
+    MazeMetrics metrics = new MazeMetrics(true);
+    WallGrid braided = WallGrid.generate(100, 60, new Random(5), 0.1, metrics);
+    // the tree is still there, with a tenth of the 5841 edges it left out opened again
+    t.checkExpect(this.passages(braided), 5999 + 584);
+    t.checkExpect(metrics.get(MazeMetrics.EDGES_BRAIDED).last, 584L);
+    boolean keepsTree = true;
+    for (int i = 0; i < tree.bits.length; i++) {
+      keepsTree = keepsTree && (braided.bits[i] & tree.bits[i]) == tree.bits[i];
+    }
+    t.checkExpect(keepsTree, true);
+    // no braiding is the plain tree, braiding everything opens every passage
+    t.checkExpect(WallGrid.generate(100, 60, new Random(5), 0, metrics).bits, tree.bits);
+    t.checkExpect(this.passages(WallGrid.generate(100, 60, new Random(5), 1, metrics)), 11840);
+    t.checkExpect(tree.weights, null);
+    t.checkExpect(tree.weight(0, 1), 1);
+    t.checkRange(braided.weight(0, 100), 0, 1000);
+    t.checkExpect(braided.fingerprint() != tree.fingerprint(), true);
+  }
+
+  void testEdgeIds(Tester t) {
+    // in a 3 by 2 grid the horizontal edges are 0 to 3 and the vertical ones 4 to 6
+    t.checkExpect(WallGrid.edgeFrom(3, 3, 4), 4);
+    t.checkExpect(WallGrid.edgeTo(3, 3, 4), 5);
+    t.checkExpect(WallGrid.edgeFrom(5, 3, 4), 1);
+    t.checkExpect(WallGrid.edgeTo(5, 3, 4), 4);
+    t.checkExpect(WallGrid.passageBit(4, 1, 3), 3L);
+    t.checkExpect(WallGrid.passageBit(4, 5, 3), 8L);
+    // past Integer.MAX_VALUE cells, as in a 50000 by 50000 maze
+    t.checkExpect(WallGrid.passageBit(2_500_000_000L, 2_499_950_000L, 50000), 4_999_900_001L);
+    t.checkExpect(WallGrid.passageBit(2_499_999_998L, 2_499_999_999L, 50000), 4_999_999_996L);
+  }
+
+  void testMazeFromGrid(Tester t) {
+    this.initData();
+    // the adapter lets the solvers and manual entry run against a WallGrid
+    Maze fromGrid = new Maze(WallGrid.generate(5, 5, new Random(5)));
+    fromGrid.onKeyEvent("b");
+    this.maze1.onKeyEvent("b");
+    t.checkExpect(fromGrid.visitedNodes.size(), this.maze1.visitedNodes.size());
+    t.checkExpect(fromGrid.edgesInTheMaze.size(), 24);
+    fromGrid.onKeyEvent("right");
+    t.checkExpect(fromGrid.currentNode.pos, 1);
+  }
+
+  void testFingerprint(Tester t) {
+    this.initData();
+    t.checkExpect(this.maze5.toWallGrid().fingerprint(),
+        WallGrid.generate(100, 60, new Random(5)).fingerprint());
+    t.checkExpect(WallGrid.generate(100, 60, new Random(6)).fingerprint()
+        != this.maze5.toWallGrid().fingerprint(), true);
+    // the same passages in a grid of another shape are another maze
+    t.checkExpect(new WallGrid(3, 2).fingerprint() != new WallGrid(2, 3).fingerprint(), true);
+    long before = this.grid1.fingerprint();
+    this.grid1.connect(0, 1);
+    t.checkExpect(this.grid1.fingerprint() != before, true);
+  }
+
+  void testBytesUsed(Tester t) {
+    this.initData();
+    t.checkExpect(this.grid1.bytesUsed(), 8L);
+    // a million cells take a quarter of a byte each
+    t.checkExpect(this.grid2.bytesUsed(), 250000L);
+    t.checkExpect(this.grid2.cells(), 1000000);
+  }
+
+  void testTooBig(Tester t) {
+    // 2^37 cells or more pack into more longs than one array can hold
+    t.checkConstructorException(
+        new IllegalArgumentException("A maze of 1048576 by 131072 cells does not fit in a "
+            + "WallGrid"), "WallGrid", 1 << 20, 1 << 17);
+    t.checkConstructorException(
+        new IllegalArgumentException("A maze of -1 by 5 cells does not fit in a WallGrid"),
+        "WallGrid", -1, 5);
+  }
+}
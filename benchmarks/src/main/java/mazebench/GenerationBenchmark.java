@@ -0,0 +1,58 @@
+package mazebench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// measures making a maze, from the whole of createMaze down to its two halves: Kruskal's
+// algorithm over the walls, which used to be edgesInMaze, and building the board of nodes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class GenerationBenchmark {
+  @Param({"10", "100", "500", "1000", "2000"})
+  int size; // the maze is size by size
+
+  Object grid; // a WallGrid of the maze, for building boards from
+
+  @Setup(Level.Trial)
+  public void setUp() throws Throwable {
+    this.grid = (Object) MazeHandles.GENERATE_GRID.invokeExact(this.size, this.size,
+        (RandomGenerator) new Random(MazeHandles.SEED));
+  }
+
+  // new Maze(size, size, rand), which runs createMaze
+  @Benchmark
+  public Object createMaze() throws Throwable {
+    return (Object) MazeHandles.NEW_MAZE.invokeExact(this.size, this.size,
+        new Random(MazeHandles.SEED));
+  }
+
+  // Kruskal's algorithm straight into a WallGrid, the work edgesInMaze used to do
+  @Benchmark
+  public Object edgesInMaze() throws Throwable {
+    return (Object) MazeHandles.GENERATE_GRID.invokeExact(this.size, this.size,
+        (RandomGenerator) new Random(MazeHandles.SEED));
+  }
+
+  // the board of nodes and edgesInTheMaze built from an already generated maze
+  @Benchmark
+  public Object loadGrid() throws Throwable {
+    return (Object) MazeHandles.NEW_MAZE_FROM_GRID.invokeExact(this.grid);
+  }
+}
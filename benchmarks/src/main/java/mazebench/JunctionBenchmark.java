@@ -0,0 +1,67 @@
+package mazebench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// measures solving the same maze between a different pair of cells every time with a
+// MazeEngine, breadth-first over every cell against over the junction graph, which the engine
+// builds on the first solve and keeps for every solve after it whatever its endpoints
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class JunctionBenchmark {
+  @Param({"10", "100", "500", "1000", "2000"})
+  int size; // the maze is size by size
+
+  Object engine;
+  int[] ends; // the endpoints of the solves, taken two at a time
+  int next = 0;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Throwable {
+    this.engine = (Object) MazeHandles.NEW_ENGINE.invokeExact();
+    MazeHandles.ENGINE_GENERATE.invokeExact(this.engine, this.size, this.size,
+        MazeHandles.SEED);
+    SplittableRandom rand = new SplittableRandom(MazeHandles.SEED);
+    this.ends = new int[2048];
+    for (int i = 0; i < this.ends.length; i++) {
+      this.ends[i] = rand.nextInt(this.size * this.size);
+    }
+    // builds the junction graph so every measured solve reuses it
+    Object unused = (Object) MazeHandles.ENGINE_SOLVE.invokeExact(this.engine, "junction");
+  }
+
+  // returns the solution the given algorithm finds between the next pair of endpoints
+  Object solveNext(String algorithm) throws Throwable {
+    int from = this.ends[this.next];
+    int[] goals = {this.ends[this.next + 1]};
+    this.next = (this.next + 2) % this.ends.length;
+    return (Object) MazeHandles.ENGINE_SOLVE_BETWEEN.invokeExact(this.engine, algorithm, from,
+        goals);
+  }
+
+  @Benchmark
+  public Object breadthFirst() throws Throwable {
+    return this.solveNext("bfs");
+  }
+
+  @Benchmark
+  public Object junction() throws Throwable {
+    return this.solveNext("junction");
+  }
+}
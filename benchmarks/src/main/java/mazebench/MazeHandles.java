@@ -0,0 +1,184 @@
+package mazebench;
+
+import java.awt.image.BufferedImage;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+// holds method handles into the maze classes, which live in the default package and so can
+// not be named from a benchmark, JMH needs every benchmark to be in a package of its own
+// the handles are static finals typed with Object, so once the JIT compiles a benchmark a
+// call through them costs about the same as a direct call
+final class MazeHandles {
+  // the seed every benchmark generates its mazes from
+  static final long SEED = 5;
+
+  static final Class<?> MAZE = MazeHandles.type("Maze");
+  static final Class<?> NODE = MazeHandles.type("Node");
+  static final Class<?> WALL_GRID = MazeHandles.type("WallGrid");
+  static final Class<?> COLLECTION = MazeHandles.type("ICollection");
+  static final Class<?> RASTERIZER = MazeHandles.type("MazeRasterizer");
+  static final Class<?> ENGINE = MazeHandles.type("MazeEngine");
+
+  // new Maze(int length, int height, Random rand), which runs createMaze
+  static final MethodHandle NEW_MAZE = MazeHandles.constructor(MAZE,
+      MethodType.methodType(void.class, int.class, int.class, Random.class));
+
+  // new Maze(WallGrid grid), which builds the board and edgesInTheMaze from the grid
+  static final MethodHandle NEW_MAZE_FROM_GRID = MazeHandles.constructor(MAZE,
+      MethodType.methodType(void.class, WALL_GRID));
+
+  // WallGrid.generate(int length, int height, RandomGenerator rand), Kruskal's algorithm
+  static final MethodHandle GENERATE_GRID = MazeHandles.staticMethod(WALL_GRID, "generate",
+      MethodType.methodType(WALL_GRID, int.class, int.class, RandomGenerator.class));
+
+  // maze.nodeAt(int pos)
+  static final MethodHandle NODE_AT = MazeHandles.virtual(MAZE, "nodeAt",
+      MethodType.methodType(NODE, int.class));
+
+  // maze.toWallGrid()
+  static final MethodHandle TO_WALL_GRID = MazeHandles.virtual(MAZE, "toWallGrid",
+      MethodType.methodType(WALL_GRID));
+
+  // maze.searchHelp(Node from, Node to, ICollection<Node> workList)
+  static final MethodHandle SEARCH_HELP = MazeHandles.virtual(MAZE, "searchHelp",
+      MethodType.methodType(void.class, NODE, NODE, COLLECTION));
+
+  // maze.directPath()
+  static final MethodHandle DIRECT_PATH = MazeHandles.virtual(MAZE, "directPath",
+      MethodType.methodType(void.class));
+
+  // maze.makeScene()
+  static final MethodHandle MAKE_SCENE = MazeHandles.virtual(MAZE, "makeScene",
+      MethodType.methodType(MazeHandles.type("javalib.impworld.WorldScene")));
+
+  // maze.onKeyEvent(String key)
+  static final MethodHandle ON_KEY_EVENT = MazeHandles.virtual(MAZE, "onKeyEvent",
+      MethodType.methodType(void.class, String.class));
+
+  // maze.visitedNodes = list, so a search starts over without regenerating the maze
+  static final MethodHandle SET_VISITED_NODES = MazeHandles.setter(MAZE, "visitedNodes",
+      ArrayList.class);
+
+  // new Queue<Node>() and new Stack<Node>()
+  static final MethodHandle NEW_QUEUE = MazeHandles.constructor(MazeHandles.type("Queue"),
+      MethodType.methodType(void.class));
+  static final MethodHandle NEW_STACK = MazeHandles.constructor(MazeHandles.type("Stack"),
+      MethodType.methodType(void.class));
+
+  // new MazeEngine(), with no maze yet
+  static final MethodHandle NEW_ENGINE = MazeHandles.constructor(ENGINE,
+      MethodType.methodType(void.class));
+
+  // engine.generate(int width, int height, long seed)
+  static final MethodHandle ENGINE_GENERATE = MazeHandles.virtual(ENGINE, "generate",
+      MethodType.methodType(void.class, int.class, int.class, long.class));
+
+  // engine.solve(String algorithm), from the start to the goals of the engine
+  static final MethodHandle ENGINE_SOLVE = MazeHandles.virtual(ENGINE, "solve",
+      MethodType.methodType(MazeHandles.type("MazeSolution"), String.class));
+
+  // engine.solve(String algorithm, int from, int... goals)
+  static final MethodHandle ENGINE_SOLVE_BETWEEN = MazeHandles.virtual(ENGINE, "solve",
+      MethodType.methodType(MazeHandles.type("MazeSolution"), String.class, int.class,
+          int[].class));
+
+  // new MazeRasterizer(int cellSize, int threads)
+  static final MethodHandle NEW_RASTERIZER = MazeHandles.constructor(RASTERIZER,
+      MethodType.methodType(void.class, int.class, int.class));
+
+  // rasterizer.rasterize(WallGrid grid, int[] cellColors)
+  static final MethodHandle RASTERIZE = MazeHandles.virtual(RASTERIZER, "rasterize",
+      MethodType.methodType(BufferedImage.class, WALL_GRID, int[].class));
+
+  private MazeHandles() {
+  }
+
+  // returns the class of the given name, loaded next to the benchmarks
+  static Class<?> type(String name) {
+    try {
+      return Class.forName(name, true, MazeHandles.class.getClassLoader());
+    }
+    catch (ClassNotFoundException e) {
+      throw new IllegalStateException("The maze classes are not on the class path", e);
+    }
+  }
+
+  // returns a lookup that can see the package-private members of the given class, which is
+  // allowed because the benchmarks and the maze are both in the unnamed module
+  static MethodHandles.Lookup lookupIn(Class<?> owner) {
+    try {
+      return MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+    }
+    catch (IllegalAccessException e) {
+      throw new IllegalStateException("Can not reach into " + owner.getName(), e);
+    }
+  }
+
+  // returns the given constructor, taking its arguments as they are and returning an Object
+  static MethodHandle constructor(Class<?> owner, MethodType type) {
+    try {
+      MethodHandle handle = MazeHandles.lookupIn(owner).findConstructor(owner, type);
+      return handle.asType(MazeHandles.erase(handle.type()));
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("No such constructor of " + owner.getName(), e);
+    }
+  }
+
+  // returns the given static method with every maze class in its type turned into Object
+  static MethodHandle staticMethod(Class<?> owner, String name, MethodType type) {
+    try {
+      MethodHandle handle = MazeHandles.lookupIn(owner).findStatic(owner, name, type);
+      return handle.asType(MazeHandles.erase(handle.type()));
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("No method " + name + " in " + owner.getName(), e);
+    }
+  }
+
+  // returns the given instance method with every maze class in its type turned into Object
+  static MethodHandle virtual(Class<?> owner, String name, MethodType type) {
+    try {
+      MethodHandle handle = MazeHandles.lookupIn(owner).findVirtual(owner, name, type);
+      return handle.asType(MazeHandles.erase(handle.type()));
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("No method " + name + " in " + owner.getName(), e);
+    }
+  }
+
+  // returns a setter of the given field that takes the owner as an Object
+  static MethodHandle setter(Class<?> owner, String name, Class<?> fieldType) {
+    try {
+      MethodHandle handle = MazeHandles.lookupIn(owner).findSetter(owner, name, fieldType);
+      return handle.asType(MethodType.methodType(void.class, Object.class, fieldType));
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("No field " + name + " in " + owner.getName(), e);
+    }
+  }
+
+  // returns the given type with every class that is not a primitive, an array or from the
+  // JDK turned into Object, so benchmarks can call the handle without naming maze classes
+  static MethodType erase(MethodType type) {
+    MethodType erased = type;
+    for (int i = 0; i < type.parameterCount(); i++) {
+      if (MazeHandles.isMazeClass(type.parameterType(i))) {
+        erased = erased.changeParameterType(i, Object.class);
+      }
+    }
+    if (MazeHandles.isMazeClass(type.returnType())) {
+      erased = erased.changeReturnType(Object.class);
+    }
+    return erased;
+  }
+
+  // returns whether the given class is one of the maze's own classes or javalib's
+  static boolean isMazeClass(Class<?> type) {
+    return !type.isPrimitive() && !type.isArray() && !type.getName().startsWith("java.");
+  }
+}
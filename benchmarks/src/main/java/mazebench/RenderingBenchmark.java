@@ -0,0 +1,58 @@
+package mazebench;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// measures drawing a solved maze, a frame of the World with makeScene and a whole picture of
+// the maze with the headless MazeRasterizer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class RenderingBenchmark {
+  @Param({"10", "100", "500", "1000", "2000"})
+  int size; // the maze is size by size
+
+  Object maze;
+  Object grid;
+  Object rasterizer;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Throwable {
+    this.maze = (Object) MazeHandles.NEW_MAZE.invokeExact(this.size, this.size,
+        new Random(MazeHandles.SEED));
+    // shows a whole breadth-first search and its path, then draws the first frame so the
+    // benchmark measures the frames after it
+    MazeHandles.ON_KEY_EVENT.invokeExact(this.maze, "b");
+    MazeHandles.ON_KEY_EVENT.invokeExact(this.maze, "f");
+    Object firstFrame = (Object) MazeHandles.MAKE_SCENE.invokeExact(this.maze);
+    this.grid = (Object) MazeHandles.TO_WALL_GRID.invokeExact(this.maze);
+    this.rasterizer = (Object) MazeHandles.NEW_RASTERIZER.invokeExact(2, 1);
+  }
+
+  @Benchmark
+  public Object makeScene() throws Throwable {
+    return (Object) MazeHandles.MAKE_SCENE.invokeExact(this.maze);
+  }
+
+  @Benchmark
+  public BufferedImage rasterize() throws Throwable {
+    return (BufferedImage) MazeHandles.RASTERIZE.invokeExact(this.rasterizer, this.grid,
+        (int[]) null);
+  }
+}
@@ -0,0 +1,68 @@
+package mazebench;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// measures solving a maze from its start to its end with searchHelp, breadth-first with a
+// Queue and depth-first with a Stack, and tracing the path back with directPath
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class SolvingBenchmark {
+  @Param({"10", "100", "500", "1000", "2000"})
+  int size; // the maze is size by size
+
+  Object maze;
+  Object start;
+  Object end;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Throwable {
+    this.maze = (Object) MazeHandles.NEW_MAZE.invokeExact(this.size, this.size,
+        new Random(MazeHandles.SEED));
+    this.start = (Object) MazeHandles.NODE_AT.invokeExact(this.maze, 0);
+    this.end = (Object) MazeHandles.NODE_AT.invokeExact(this.maze, this.size * this.size - 1);
+    // directPath follows where each node was reached from, so one search has to run first
+    this.search((Object) MazeHandles.NEW_QUEUE.invokeExact());
+  }
+
+  // runs searchHelp from the start to the end with the given worklist, after forgetting the
+  // nodes the last search queued up to be shown
+  Object search(Object workList) throws Throwable {
+    MazeHandles.SET_VISITED_NODES.invokeExact(this.maze, new ArrayList<Object>());
+    MazeHandles.SEARCH_HELP.invokeExact(this.maze, this.start, this.end, workList);
+    return this.maze;
+  }
+
+  @Benchmark
+  public Object searchHelpQueue() throws Throwable {
+    return this.search((Object) MazeHandles.NEW_QUEUE.invokeExact());
+  }
+
+  @Benchmark
+  public Object searchHelpStack() throws Throwable {
+    return this.search((Object) MazeHandles.NEW_STACK.invokeExact());
+  }
+
+  @Benchmark
+  public Object directPath() throws Throwable {
+    MazeHandles.DIRECT_PATH.invokeExact(this.maze);
+    return this.maze;
+  }
+}